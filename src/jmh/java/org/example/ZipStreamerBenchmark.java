@@ -0,0 +1,137 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Sequential vs parallel DEFLATE on the FileDownloadTest fixture shape: a 10 MB source
+ * bundled several times. Output goes to a discarding channel so only compression is measured.
+ * {@code zipOutputStream} is the original FileDownloadTest path over the same inputs, the
+ * baseline the speedup is measured against; it ignores {@code parallelism}.
+ * <pre>gradle jmh -PjmhIncludes=ZipStreamerBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms256m", "-Xmx256m"})
+public class ZipStreamerBenchmark {
+
+    private static final int MEGA_BYTE = 1024 * 1024;
+
+    @Param({"1", "2", "4", "8"})
+    int parallelism;
+
+    @Param({"10"})
+    int entries;
+
+    private Path dir;
+    private List<FileDto> fileDtos;
+    private ZipStreamer streamer;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("zip-bench");
+        Path source = dir.resolve("source.bin");
+        Files.write(source, textLike(10 * MEGA_BYTE));
+        fileDtos = IntStream.range(0, entries)
+                .mapToObj(i -> FileDto.builder().name("entry " + i).url(source.toString()).build())
+                .toList();
+        streamer = ZipStreamer.builder().parallelism(parallelism).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public long deflate() throws IOException {
+        NullChannel out = new NullChannel();
+        streamer.write(fileDtos, out);
+        return out.written;
+    }
+
+    @Benchmark
+    public long zipOutputStream() throws IOException {
+        NullChannel channel = new NullChannel();
+        try (ZipOutputStream zos = new ZipOutputStream(Channels.newOutputStream(channel))) {
+            for (FileDto fileDto : fileDtos) {
+                try (FileInputStream fis = new FileInputStream(fileDto.getUrl())) {
+                    zos.putNextEntry(new ZipEntry(fileDto.getName()));
+                    zos.write(fis.readAllBytes());
+                    zos.closeEntry();
+                }
+            }
+        }
+        return channel.written;
+    }
+
+    // compresses roughly like logs or CSV exports, unlike zeros or pure noise
+    static byte[] textLike(int size) {
+        Random random = new Random(42);
+        String[] words = {"potato", "product", "price", "20240101", "A-1", "download", "zip", "stream", ",", "\n"};
+        byte[] bytes = new byte[size];
+        int i = 0;
+        while (i < size) {
+            byte[] word = (words[random.nextInt(words.length)] + (random.nextInt(4) == 0 ? random.nextInt(10_000) : ""))
+                    .getBytes();
+            int n = Math.min(word.length, size - i);
+            System.arraycopy(word, 0, bytes, i, n);
+            i += n;
+        }
+        return bytes;
+    }
+
+    static final class NullChannel implements WritableByteChannel {
+        long written;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            written += n;
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
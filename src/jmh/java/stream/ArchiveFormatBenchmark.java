@@ -0,0 +1,127 @@
+package stream;
+
+import org.example.ArchiveFormat;
+import org.example.EntryMethod;
+import org.example.FileDto;
+import org.example.TarArchive;
+import org.example.TarCompression;
+import org.example.ZipStreamer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of each archive format over FileDownloadTest's fixtures: 10 entries of 1 or 10 MB,
+ * either all zeros like the test files or word text. The archive size ratio of every
+ * combination is printed once per trial, so the output shows speed against size.
+ * <pre>gradle jmh -PjmhIncludes=ArchiveFormatBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms256m", "-Xmx256m"})
+public class ArchiveFormatBenchmark {
+
+    private static final int ENTRIES = 10;
+
+    @Param({"zip", "zip-1", "zip-stored", "tar", "tar.gz-1", "tar.gz", "tar.lz4-1", "tar.lz4", "tar.lz4-9"})
+    String format;
+
+    @Param({"1", "10"})
+    int megabytes;
+
+    @Param({"zeros", "text"})
+    String content;
+
+    private Path source;
+    private List<FileDto> files;
+    private ArchiveFormat archive;
+    private final Counting out = new Counting();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        source = Files.createTempFile("archive-benchmark", ".bin");
+        Files.write(source, content.equals("zeros") ? new byte[megabytes << 20] : words(megabytes << 20));
+        files = IntStream.range(0, ENTRIES)
+                .mapToObj(i -> FileDto.builder().name("entry " + i).url(source.toString()).build())
+                .toList();
+        archive = format(format);
+        archive.write(files, out);
+        System.out.printf(Locale.ROOT, "%n%s %d MB %s: ratio %.4f%n", format, megabytes, content,
+                (double) out.count / ((long) ENTRIES * megabytes << 20));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(source);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        out.count = 0;
+        archive.write(files, out);
+        return out.count;
+    }
+
+    private static ArchiveFormat format(String name) {
+        return switch (name) {
+            case "zip" -> ZipStreamer.defaults();
+            case "zip-1" -> ZipStreamer.builder().level(1).build();
+            case "zip-stored" -> ZipStreamer.builder().method(EntryMethod.STORED).build();
+            case "tar" -> TarArchive.of(TarCompression.NONE);
+            case "tar.gz-1" -> TarArchive.builder().compression(TarCompression.GZIP).level(1).build();
+            case "tar.gz" -> TarArchive.of(TarCompression.GZIP);
+            case "tar.lz4-1" -> TarArchive.builder().compression(TarCompression.LZ4).level(1).build();
+            case "tar.lz4" -> TarArchive.of(TarCompression.LZ4);
+            case "tar.lz4-9" -> TarArchive.builder().compression(TarCompression.LZ4).level(9).build();
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    private static byte[] words(int size) {
+        String[] pool = {"this ", "is ", "a ", "sweet ", "potato ", "and ", "another ", "archive "};
+        Random random = new Random(4);
+        StringBuilder text = new StringBuilder(size + 16);
+        while (text.length() < size) {
+            text.append(pool[random.nextInt(pool.length)]);
+        }
+        return text.substring(0, size).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Counting extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            count += length;
+        }
+    }
+}
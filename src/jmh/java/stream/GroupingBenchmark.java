@@ -0,0 +1,99 @@
+package stream;
+
+import org.example.stream.IntGrouping;
+import org.example.stream.IntGroups;
+import org.example.stream.StripedGrouping;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * MapCollectTest's group-by-prefix: {@code groupingBy} on a String key against
+ * {@link IntGrouping} on the char, with a hashed and a dense key index; and summing the price
+ * per group with {@code groupingBy}, {@code groupingByConcurrent} and {@link StripedGrouping}.
+ * With {@code skewed} half of the elements fall into one group, the contended case for the
+ * concurrent collectors. Vary the thread count with {@code -Djava.util.concurrent.ForkJoinPool.common.parallelism}.
+ * <pre>gradle jmh -PjmhIncludes=GroupingBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class GroupingBenchmark {
+
+    private static final int POOL = 1024;
+
+    @Param({"100000", "10000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    @Param({"false", "true"})
+    boolean skewed;
+
+    List<StatisticsBenchmark.Product> products;
+
+    @Setup
+    public void setup() {
+        StatisticsBenchmark.Product[] pool = new StatisticsBenchmark.Product[POOL];
+        for (int i = 0; i < POOL; i++) {
+            char prefix = skewed && i % 2 == 0 ? 'A' : (char) ('A' + i % 26);
+            pool[i] = new StatisticsBenchmark.Product(prefix + "-" + i, "20240101", i);
+        }
+        products = new StatisticsBenchmark.CyclicList<>(pool, size);
+    }
+
+    @Benchmark
+    public Map<String, List<StatisticsBenchmark.Product>> groupingByString() {
+        return stream().collect(Collectors.groupingBy(p -> String.valueOf(p.id().charAt(0))));
+    }
+
+    @Benchmark
+    public IntGroups<StatisticsBenchmark.Product> intGroupingHashed() {
+        return stream().collect(IntGrouping.byKey(p -> p.id().charAt(0)));
+    }
+
+    @Benchmark
+    public IntGroups<StatisticsBenchmark.Product> intGroupingDense() {
+        return stream().collect(IntGrouping.byKey(p -> p.id().charAt(0), 'A', 'Z' + 1));
+    }
+
+    @Benchmark
+    public Map<Character, Long> summingGroupingBy() {
+        return stream().collect(Collectors.groupingBy(p -> p.id().charAt(0),
+                Collectors.summingLong(StatisticsBenchmark.Product::price)));
+    }
+
+    @Benchmark
+    public Map<Character, Long> summingGroupingByConcurrent() {
+        return stream().collect(Collectors.groupingByConcurrent(p -> p.id().charAt(0),
+                Collectors.summingLong(StatisticsBenchmark.Product::price)));
+    }
+
+    @Benchmark
+    public Map<Character, Long> summingStriped() {
+        return stream().collect(StripedGrouping.summingLong(p -> p.id().charAt(0),
+                StatisticsBenchmark.Product::price));
+    }
+
+    Stream<StatisticsBenchmark.Product> stream() {
+        return parallel ? products.parallelStream() : products.stream();
+    }
+}
@@ -0,0 +1,82 @@
+package stream;
+
+import org.example.stream.Joined;
+import org.example.stream.Joining;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * ReduceTest's word join: {@link Joining} against {@code Collectors.joining}, and against
+ * {@code reduce} concatenation at the smallest size only, where it still finishes.
+ * <pre>gradle jmh -PjmhIncludes=JoiningBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class JoiningBenchmark {
+
+    @Param({"1000", "1000000", "5000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    private List<String> words;
+    private ByteBuffer target;
+
+    @Setup
+    public void setup() {
+        String[] pool = {"this", "is", "a", "sweet", "potato"};
+        words = IntStream.range(0, size).mapToObj(i -> pool[i % pool.length]).toList();
+        target = ByteBuffer.allocateDirect(size * 7);
+    }
+
+    @Benchmark
+    public String reduceConcat() {
+        if (size > 1000) {
+            return "";
+        }
+        return stream().reduce((a, b) -> a + " " + b).orElse("");
+    }
+
+    @Benchmark
+    public String collectorsJoining() {
+        return stream().collect(Collectors.joining(" "));
+    }
+
+    @Benchmark
+    public String joining() {
+        return stream().collect(Joining.joining(" "));
+    }
+
+    @Benchmark
+    public ByteBuffer joinedUtf8() {
+        Joined joined = stream().collect(Joining.joined(" ", "", ""));
+        target.clear();
+        joined.writeUtf8(target);
+        return target;
+    }
+
+    private Stream<String> stream() {
+        return parallel ? words.parallelStream() : words.stream();
+    }
+}
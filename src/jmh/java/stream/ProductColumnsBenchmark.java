@@ -0,0 +1,82 @@
+package stream;
+
+import org.example.stream.Product;
+import org.example.stream.ProductColumns;
+import org.example.stream.Totals;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A date-filtered price summary and a group-by-prefix over {@code List<Product>} streams
+ * against the same queries on {@link ProductColumns}.
+ * <pre>gradle jmh -PjmhIncludes=ProductColumnsBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ProductColumnsBenchmark {
+
+    private static final LocalDate FROM = LocalDate.of(2023, 6, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 6, 1);
+
+    @Param({"1000000", "10000000"})
+    int size;
+
+    private List<Product> products;
+    private ProductColumns columns;
+
+    @Setup
+    public void setup() {
+        products = IntStream.range(0, size)
+                .mapToObj(i -> new Product((char) ('A' + i % 26) + "-" + i % 100_000,
+                        String.format("%04d%02d%02d", 2022 + i % 3, 1 + i % 12, 1 + i % 28), i % 10_000))
+                .toList();
+        columns = ProductColumns.of(products.stream());
+    }
+
+    @Benchmark
+    public IntSummaryStatistics streamFilteredSummary() {
+        String from = "20230601";
+        String to = "20240601";
+        return products.stream()
+                .filter(p -> p.producedAt().compareTo(from) >= 0 && p.producedAt().compareTo(to) < 0)
+                .mapToInt(Product::price)
+                .summaryStatistics();
+    }
+
+    @Benchmark
+    public Totals columnsFilteredSummary() {
+        return columns.priceTotals(FROM, TO);
+    }
+
+    @Benchmark
+    public Map<String, IntSummaryStatistics> streamGroupByPrefix() {
+        return products.stream().collect(Collectors.groupingBy(p -> String.valueOf(p.id().charAt(0)),
+                Collectors.summarizingInt(Product::price)));
+    }
+
+    @Benchmark
+    public Map<Character, Totals> columnsGroupByPrefix() {
+        return columns.priceTotalsByIdPrefix();
+    }
+}
@@ -0,0 +1,189 @@
+package stream;
+
+import org.example.stream.IntStats;
+import org.example.stream.PrimitiveCollectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.AbstractList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The min/max/sum patterns of ReduceTest and MapCollectTest, sequential and parallel, from
+ * 10^3 to 10^8 elements. Run with the gc profiler (on by default in build.gradle) for
+ * allocation per op, then {@code gradle jmhBreakEven} for the size where parallel starts to win.
+ * <pre>gradle jmh -PjmhIncludes=StatisticsBenchmark</pre>
+ * <p>
+ * The sources are virtual lists that cycle through a small pool of elements, so even 10^8
+ * elements fit in the 256 MB heap the tests use and only the pipeline itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms256m", "-Xmx256m"})
+public class StatisticsBenchmark {
+
+    private static final int POOL = 1024;
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    private List<Potato> potatoes;
+    private List<Product> products;
+
+    @Setup
+    public void setup() {
+        Potato[] potatoPool = new Potato[POOL];
+        Product[] productPool = new Product[POOL];
+        for (int i = 0; i < POOL; i++) {
+            int price = (i * 7919) % 10_000;
+            potatoPool[i] = new Potato("potato " + i, price);
+            productPool[i] = new Product((char) ('A' + i % 26) + "-" + i, "2024" + String.format("%04d", 101 + i % 28), price);
+        }
+        potatoes = new CyclicList<>(potatoPool, size);
+        products = new CyclicList<>(productPool, size);
+    }
+
+    @Benchmark
+    public PotatoStat reduceImmutablePotatoStat() {
+        return stream(potatoes).reduce(
+                new PotatoStat(Integer.MIN_VALUE, Integer.MAX_VALUE, 0),
+                (stat, potato) -> new PotatoStat(
+                        Math.max(stat.high, potato.price),
+                        Math.min(stat.low, potato.price),
+                        stat.total + potato.price
+                ),
+                (stat1, stat2) -> new PotatoStat(
+                        Math.max(stat1.high, stat2.high),
+                        Math.min(stat1.low, stat2.low),
+                        stat1.total + stat2.total
+                ));
+    }
+
+    @Benchmark
+    public PotatoStat collectMutablePotatoStat() {
+        return stream(potatoes).collect(
+                () -> new PotatoStat(Integer.MIN_VALUE, Integer.MAX_VALUE, 0),
+                (stat, potato) -> {
+                    stat.high = Math.max(stat.high, potato.price);
+                    stat.low = Math.min(stat.low, potato.price);
+                    stat.total += potato.price;
+                },
+                (stat1, stat2) -> {
+                    stat1.high = Math.max(stat1.high, stat2.high);
+                    stat1.low = Math.min(stat1.low, stat2.low);
+                    stat1.total += stat2.total;
+                });
+    }
+
+    @Benchmark
+    public ProductStat collectProductStat() {
+        return stream(products).collect(
+                () -> new ProductStat(Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0),
+                (stat, product) -> {
+                    stat.max = Math.max(stat.max, product.price());
+                    stat.min = Math.min(stat.min, product.price());
+                    stat.sum += product.price();
+                    stat.count++;
+                },
+                (stat1, stat2) -> {
+                    stat1.max = Math.max(stat1.max, stat2.max);
+                    stat1.min = Math.min(stat1.min, stat2.min);
+                    stat1.sum += stat2.sum;
+                    stat1.count += stat2.count;
+                });
+    }
+
+    @Benchmark
+    public IntSummaryStatistics summarizingInt() {
+        return stream(products).collect(Collectors.summarizingInt(Product::price));
+    }
+
+    @Benchmark
+    public IntSummaryStatistics mapToIntSummaryStatistics() {
+        return stream(products).mapToInt(Product::price).summaryStatistics();
+    }
+
+    @Benchmark
+    public IntStats primitiveIntStats() {
+        return stream(products).collect(PrimitiveCollectors.intStats(Product::price));
+    }
+
+    private <T> Stream<T> stream(List<T> list) {
+        return parallel ? list.parallelStream() : list.stream();
+    }
+
+    record Potato(String name, int price) {
+    }
+
+    record Product(String id, String producedAt, int price) {
+    }
+
+    static final class PotatoStat {
+        int high;
+        int low;
+        long total;
+
+        PotatoStat(int high, int low, long total) {
+            this.high = high;
+            this.low = low;
+            this.total = total;
+        }
+    }
+
+    static final class ProductStat {
+        int max;
+        int min;
+        long sum;
+        int count;
+
+        ProductStat(int max, int min, long sum, int count) {
+            this.max = max;
+            this.min = min;
+            this.sum = sum;
+            this.count = count;
+        }
+    }
+
+    /**
+     * {@code size} elements backed by a small pool; splits like an ArrayList in parallel streams.
+     */
+    static final class CyclicList<T> extends AbstractList<T> implements RandomAccess {
+        private final T[] pool;
+        private final int size;
+
+        CyclicList(T[] pool, int size) {
+            this.pool = pool;
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            return pool[index % pool.length];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package stream;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs {@link StatisticsBenchmark} with the gc profiler and prints, per pattern and size, the
+ * sequential and parallel throughput and allocation, followed by the smallest measured size
+ * at which the parallel stream wins.
+ * <pre>gradle jmhBreakEven</pre>
+ */
+public class StatisticsBreakEven {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(StatisticsBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        // pattern -> size -> [sequential, parallel]
+        Map<String, Map<Integer, Row[]>> table = new TreeMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String pattern = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1);
+            int size = Integer.parseInt(params.getParam("size"));
+            boolean parallel = Boolean.parseBoolean(params.getParam("parallel"));
+            table.computeIfAbsent(pattern, p -> new TreeMap<>())
+                    .computeIfAbsent(size, s -> new Row[2])[parallel ? 1 : 0] =
+                    new Row(result.getPrimaryResult().getScore(), allocation(result));
+        }
+
+        System.out.printf("%n%-28s %10s %14s %14s %14s %14s%n",
+                "pattern", "size", "seq ops/s", "par ops/s", "seq B/op", "par B/op");
+        table.forEach((pattern, sizes) -> {
+            Integer breakEven = null;
+            for (Map.Entry<Integer, Row[]> entry : sizes.entrySet()) {
+                Row sequential = entry.getValue()[0];
+                Row parallel = entry.getValue()[1];
+                if (sequential == null || parallel == null) {
+                    continue;
+                }
+                System.out.printf("%-28s %10d %14.2f %14.2f %14.0f %14.0f%n", pattern, entry.getKey(),
+                        sequential.score, parallel.score, sequential.allocation, parallel.allocation);
+                if (breakEven == null && parallel.score > sequential.score) {
+                    breakEven = entry.getKey();
+                }
+            }
+            System.out.printf("%-28s parallel break-even: %s%n%n", pattern,
+                    breakEven == null ? "not reached" : ">= " + breakEven + " elements");
+        });
+    }
+
+    private static double allocation(RunResult result) {
+        Result<?> norm = result.getSecondaryResults().get("gc.alloc.rate.norm");
+        return norm == null ? Double.NaN : norm.getScore();
+    }
+
+    private record Row(double score, double allocation) {
+    }
+}
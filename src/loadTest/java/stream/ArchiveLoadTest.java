@@ -0,0 +1,108 @@
+package stream;
+
+import org.example.ArchiveScheduler;
+import org.example.FileDto;
+import org.example.ZipMetrics;
+import org.example.ZipStreamer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load and soak scenarios for the download path: {@code load.jobs} concurrent archive jobs,
+ * repeated {@code load.rounds} times, admitted by an {@link ArchiveScheduler} with a
+ * {@code load.budget} byte budget under the 256 MB heap of the {@code loadTest} task. Odd jobs
+ * ask for parallel deflate and prefetching, so the scheduler has to degrade or queue them.
+ * <p>
+ * Each scenario fails on an {@code OutOfMemoryError}, on a peak heap above the budget plus a
+ * fixed allowance, or on a regression against the stored baseline. Run with
+ * {@code gradle loadTest -Pload.fileSize=20g -Pload.rounds=10} for a soak; reports are written to
+ * {@code build/load}.
+ */
+public class ArchiveLoadTest {
+
+    private static final int JOBS = Integer.getInteger("load.jobs", 8);
+    private static final int FILES = Integer.getInteger("load.files", 2);
+    private static final int ROUNDS = Integer.getInteger("load.rounds", 1);
+    private static final String FILE_SIZE = System.getProperty("load.fileSize", "512m");
+    private static final long BUDGET = SparseFiles.parseSize(System.getProperty("load.budget", "32m"));
+    private static final boolean UPDATE_BASELINE = System.getProperty("load.updateBaseline") != null
+            && !System.getProperty("load.updateBaseline").equals("false");
+    private static final Path BASELINE = Path.of(System.getProperty("load.baseline", "load-baseline.properties"));
+    private static final Path REPORTS = Path.of(System.getProperty("load.report", "build/load"));
+    // class metadata, JIT, JFR buffers and the test's own garbage
+    private static final long HEAP_ALLOWANCE = 96L * 1024 * 1024;
+    private static final int SMALL_ENTRIES = 2_000;
+
+    private static final List<LoadReport> REPORTED = new ArrayList<>();
+
+    @TempDir
+    static Path dir;
+
+    @DisplayName("concurrent jobs over large sparse files stay within the heap budget")
+    @Test
+    void largeFiles() throws Exception {
+        Path source = SparseFiles.create(dir.resolve("large.bin"), SparseFiles.parseSize(FILE_SIZE), 1);
+        run("large.j" + JOBS + ".f" + FILES + ".s" + FILE_SIZE + ".r" + ROUNDS, source, FILES);
+    }
+
+    @DisplayName("concurrent jobs over many small files stay within the heap budget")
+    @Test
+    void manySmallFiles() throws Exception {
+        Path source = SparseFiles.create(dir.resolve("small.bin"), 64 * 1024, 2);
+        run("small.j" + JOBS + ".e" + SMALL_ENTRIES + ".r" + ROUNDS, source, SMALL_ENTRIES);
+    }
+
+    @AfterAll
+    static void updateBaseline() throws IOException {
+        if (UPDATE_BASELINE) {
+            Baseline baseline = Baseline.load(BASELINE);
+            REPORTED.forEach(baseline::update);
+            baseline.store();
+        }
+    }
+
+    private void run(String scenario, Path source, int entries) throws Exception {
+        List<FileDto> files = ZipStreamerTest.getFileDtos(source, entries);
+        ArchiveScheduler scheduler = ArchiveScheduler.builder().budget(BUDGET).build();
+        ZipMetrics metrics = new ZipMetrics();
+        ZipStreamer sequential = ZipStreamer.builder().metrics(metrics).build();
+        ZipStreamer parallel = sequential.toBuilder().parallelism(4).prefetchDepth(4).build();
+
+        LoadReport report;
+        try (JfrProbe probe = new JfrProbe(dir.resolve(scenario + ".jfr")).start()) {
+            for (int round = 0; round < ROUNDS; round++) {
+                List<CompletableFuture<Void>> jobs = IntStream.range(0, JOBS)
+                        .mapToObj(i -> scheduler.submit(i % 2 == 0 ? sequential : parallel, files,
+                                OutputStream.nullOutputStream()))
+                        .toList();
+                CompletableFuture.allOf(jobs.toArray(CompletableFuture[]::new)).get(1, TimeUnit.HOURS);
+            }
+            report = probe.stop(scenario, metrics.getBytesIn());
+        }
+        REPORTED.add(report);
+        Files.createDirectories(REPORTS);
+        Files.writeString(REPORTS.resolve(scenario + ".txt"), report + System.lineSeparator());
+        System.out.println(report);
+
+        assertThat(metrics.getEntries()).isEqualTo((long) JOBS * ROUNDS * entries);
+        assertThat(metrics.getBytesIn()).isEqualTo((long) JOBS * ROUNDS * entries * Files.size(source));
+        assertThat(report.peakHeapBytes()).isLessThan(BUDGET + HEAP_ALLOWANCE);
+        if (!UPDATE_BASELINE) {
+            assertThat(Baseline.load(BASELINE).regressions(report)).isEmpty();
+        }
+    }
+}
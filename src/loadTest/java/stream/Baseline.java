@@ -0,0 +1,83 @@
+package stream;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Stored peak heap and throughput per scenario. A run regresses when its peak heap grows by
+ * more than {@link #HEAP_TOLERANCE} or its throughput drops by more than
+ * {@link #THROUGHPUT_TOLERANCE}; both are loose because CI machines are noisy. Scenario names
+ * include the load parameters, so a baseline only applies to the load it was taken with.
+ */
+final class Baseline {
+
+    static final double HEAP_TOLERANCE = 0.25;
+    static final double THROUGHPUT_TOLERANCE = 0.40;
+
+    private final Path path;
+    private final Properties values = new Properties();
+
+    private Baseline(Path path) {
+        this.path = path;
+    }
+
+    static Baseline load(Path path) throws IOException {
+        Baseline baseline = new Baseline(path);
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                baseline.values.load(reader);
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * @return the regressions of {@code report}, empty when it is within tolerance or has no baseline
+     */
+    List<String> regressions(LoadReport report) {
+        List<String> regressions = new ArrayList<>();
+        String heap = values.getProperty(report.scenario() + ".peakHeapBytes");
+        if (heap != null && report.peakHeapBytes() > Long.parseLong(heap) * (1 + HEAP_TOLERANCE)) {
+            regressions.add(String.format(Locale.ROOT, "%s: peak heap %d MB, baseline %d MB",
+                    report.scenario(), report.peakHeapBytes() >> 20, Long.parseLong(heap) >> 20));
+        }
+        String throughput = values.getProperty(report.scenario() + ".throughputMBps");
+        if (throughput != null && report.throughputMBps() < Double.parseDouble(throughput) * (1 - THROUGHPUT_TOLERANCE)) {
+            regressions.add(String.format(Locale.ROOT, "%s: throughput %.1f MB/s, baseline %s MB/s",
+                    report.scenario(), report.throughputMBps(), throughput));
+        }
+        return regressions;
+    }
+
+    boolean has(String scenario) {
+        return values.containsKey(scenario + ".peakHeapBytes");
+    }
+
+    void update(LoadReport report) {
+        values.setProperty(report.scenario() + ".peakHeapBytes", Long.toString(report.peakHeapBytes()));
+        values.setProperty(report.scenario() + ".throughputMBps",
+                String.format(Locale.ROOT, "%.1f", report.throughputMBps()));
+    }
+
+    /**
+     * Writes the keys sorted and without the timestamp {@link Properties#store} adds, so the file
+     * diffs cleanly.
+     */
+    void store() throws IOException {
+        Files.createDirectories(path.getParent());
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            writer.write("# ArchiveLoadTest baselines; refresh with gradle loadTest -Pload.updateBaseline\n");
+            for (String key : new TreeSet<>(values.stringPropertyNames())) {
+                writer.write(key + "=" + values.getProperty(key) + "\n");
+            }
+        }
+    }
+}
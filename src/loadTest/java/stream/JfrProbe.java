@@ -0,0 +1,91 @@
+package stream;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Records GC, heap and allocation events around a piece of work and boils them down to a
+ * {@link LoadReport}. RSS comes from {@code jdk.ResidentSetSize} where the JDK has it and from
+ * {@code VmHWM} in {@code /proc/self/status} otherwise; it is 0 when neither is available.
+ */
+final class JfrProbe implements AutoCloseable {
+
+    private final Recording recording = new Recording();
+    private final Path dump;
+    private long startNanos;
+
+    JfrProbe(Path dump) {
+        this.dump = dump;
+        recording.enable("jdk.GarbageCollection");
+        recording.enable("jdk.GCHeapSummary");
+        recording.enable("jdk.ObjectAllocationSample").with("throttle", "150/s");
+        recording.enable("jdk.ResidentSetSize").withPeriod(Duration.ofMillis(200));
+    }
+
+    JfrProbe start() {
+        recording.start();
+        startNanos = System.nanoTime();
+        return this;
+    }
+
+    /**
+     * Stops recording and summarizes it, {@code bytes} being the source bytes archived meanwhile.
+     */
+    LoadReport stop(String scenario, long bytes) throws IOException {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        recording.stop();
+        recording.dump(dump);
+
+        long peakHeap = 0;
+        long peakRss = 0;
+        double pauseTotal = 0;
+        double pauseMax = 0;
+        long allocated = 0;
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        for (RecordedEvent event : events) {
+            switch (event.getEventType().getName()) {
+                case "jdk.GCHeapSummary" -> peakHeap = Math.max(peakHeap, event.getLong("heapUsed"));
+                case "jdk.GarbageCollection" -> {
+                    double millis = event.getDuration("sumOfPauses").toNanos() / 1e6;
+                    pauseTotal += millis;
+                    pauseMax = Math.max(pauseMax, event.getDuration("longestPause").toNanos() / 1e6);
+                }
+                case "jdk.ObjectAllocationSample" -> allocated += event.getLong("weight");
+                case "jdk.ResidentSetSize" -> peakRss = Math.max(peakRss, event.getLong("size"));
+                default -> {
+                }
+            }
+        }
+        return new LoadReport(scenario, peakHeap, Math.max(peakRss, procHighWaterMark()), pauseTotal, pauseMax,
+                allocated / 1e6 / seconds, bytes / 1e6 / seconds);
+    }
+
+    private static long procHighWaterMark() {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return 0;
+        }
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
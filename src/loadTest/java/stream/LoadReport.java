@@ -0,0 +1,21 @@
+package stream;
+
+import java.util.Locale;
+
+/**
+ * What one load scenario measured. Heap and RSS are peaks in bytes, RSS including the page
+ * cache of mapped sources. Pauses are in milliseconds, allocation in MB/s of sampled TLAB and
+ * outside-TLAB allocation, throughput in MB/s of source bytes archived.
+ */
+record LoadReport(String scenario, long peakHeapBytes, long peakRssBytes, double gcPauseTotalMillis,
+                  double gcPauseMaxMillis, double allocationMBps, double throughputMBps) {
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s: peak heap %d MB, peak rss %d MB, gc pause total %.1f ms / max %.1f ms, "
+                        + "allocation %.1f MB/s, throughput %.1f MB/s",
+                scenario, peakHeapBytes >> 20, peakRssBytes >> 20, gcPauseTotalMillis, gcPauseMaxMillis,
+                allocationMBps, throughputMBps);
+    }
+}
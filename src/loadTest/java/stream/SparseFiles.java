@@ -0,0 +1,52 @@
+package stream;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Synthetic sources of any size that take almost no disk: the length is set without writing,
+ * and only a few random blocks are filled in so the deflater has something to chew on. The
+ * holes read back as zeros.
+ */
+final class SparseFiles {
+
+    private static final int BLOCK = 4 * 1024;
+    private static final long STRIDE = 16L * 1024 * 1024;
+
+    private SparseFiles() {
+    }
+
+    /**
+     * Creates {@code path} with {@code size} bytes, or reuses it when it already has that size.
+     */
+    static Path create(Path path, long size, long seed) throws IOException {
+        if (Files.exists(path) && Files.size(path) == size) {
+            return path;
+        }
+        Random random = new Random(seed);
+        byte[] block = new byte[BLOCK];
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(size);
+            for (long offset = 0; offset + BLOCK <= size; offset += STRIDE) {
+                random.nextBytes(block);
+                file.seek(offset);
+                file.write(block);
+            }
+        }
+        return path;
+    }
+
+    static long parseSize(String size) {
+        String s = size.trim().toLowerCase();
+        long unit = switch (s.charAt(s.length() - 1)) {
+            case 'k' -> 1024L;
+            case 'm' -> 1024L * 1024;
+            case 'g' -> 1024L * 1024 * 1024;
+            default -> 1;
+        };
+        return Long.parseLong(unit == 1 ? s : s.substring(0, s.length() - 1)) * unit;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A container format that {@link FileDto}s are bundled into: every file becomes one entry named
+ * {@link FileDto#getName()} holding the bytes of {@link FileDto#path()}, in iteration order.
+ * {@link ZipStreamer} writes zip for any client; {@link TarArchive} writes tar, optionally gzip or
+ * LZ4 compressed, for peers that trade compatibility for speed.
+ */
+public interface ArchiveFormat {
+
+    /**
+     * File name extension without the dot, such as {@code zip} or {@code tar.gz}.
+     */
+    String extension();
+
+    String contentType();
+
+    /**
+     * Writes the archive and finishes it. {@code out} is flushed but left open for the caller.
+     */
+    void write(Iterator<FileDto> files, OutputStream out) throws IOException;
+
+    default void write(List<FileDto> files, OutputStream out) throws IOException {
+        write(files.iterator(), out);
+    }
+}
@@ -0,0 +1,206 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The complete byte layout of a STORED zip archive, computed up front: every local header,
+ * every body range and the central directory, at fixed offsets. Any range of the archive can
+ * then be written without producing the bytes before it, which is what HTTP range requests and
+ * resumed downloads need.
+ * <p>
+ * The layout only depends on the sources, including their modification times, so computing it
+ * again for the same unchanged files gives the same bytes and the same {@link #etag()}.
+ */
+public final class ArchiveLayout {
+
+    private final long[] offsets;
+    private final Segment[] segments;
+    private final long size;
+    private final String etag;
+
+    private ArchiveLayout(List<Segment> segments) {
+        this.segments = segments.toArray(Segment[]::new);
+        this.offsets = new long[this.segments.length];
+        long position = 0;
+        CRC32 fingerprint = new CRC32();
+        for (int i = 0; i < this.segments.length; i++) {
+            offsets[i] = position;
+            position += this.segments[i].length();
+            if (this.segments[i] instanceof Bytes bytes) {
+                fingerprint.update(bytes.bytes);
+            }
+        }
+        this.size = position;
+        this.etag = "\"" + Long.toHexString(fingerprint.getValue()) + "-" + Long.toHexString(size) + "\"";
+    }
+
+    /**
+     * Checksums every source once and lays the archive out.
+     */
+    public static ArchiveLayout of(List<FileDto> files) throws IOException {
+        List<Source> sources = new ArrayList<>(files.size());
+        long newest = 0;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ZipStreamer.DEFAULT_BUFFER_SIZE);
+        for (FileDto file : files) {
+            try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+                BasicFileAttributes attributes = Files.readAttributes(file.path(), BasicFileAttributes.class);
+                long size = channel.size();
+                long modified = attributes.lastModifiedTime().toMillis();
+                sources.add(new Source(file, size, modified, Crc32s.of(channel, size, buffer)));
+                newest = Math.max(newest, modified);
+            }
+        }
+        LocalDateTime modifiedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(newest), ZoneId.of("UTC"));
+
+        SegmentRecorder recorder = new SegmentRecorder();
+        ZipChannelWriter writer = new ZipChannelWriter(recorder, modifiedAt);
+        for (Source source : sources) {
+            writer.putEntry(source.file.getName(), ZipChannelWriter.STORED, source.crc, source.size, source.size);
+            recorder.cut();
+            writer.reserve(source.size);
+            recorder.segments.add(new Body(source));
+            writer.closeEntry();
+        }
+        writer.finish();
+        recorder.cut();
+        return new ArchiveLayout(recorder.segments);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Strong validator for {@code ETag}/{@code If-Range}; it changes whenever a name, size,
+     * checksum or timestamp in the archive does.
+     */
+    public String etag() {
+        return etag;
+    }
+
+    public void write(WritableByteChannel out) throws IOException {
+        write(0, size, out);
+    }
+
+    /**
+     * Writes bytes {@code [start, end)} of the archive.
+     *
+     * @throws IOException if a source changed since the layout was computed
+     */
+    public void write(long start, long end, WritableByteChannel out) throws IOException {
+        if (start < 0 || end > size || start > end) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + ") outside archive of " + size);
+        }
+        int index = Arrays.binarySearch(offsets, start);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        long position = start;
+        for (; position < end; index++) {
+            long from = position - offsets[index];
+            long length = Math.min(segments[index].length() - from, end - position);
+            if (length > 0) {
+                segments[index].write(from, length, out);
+            }
+            position += length;
+        }
+    }
+
+    private sealed interface Segment permits Bytes, Body {
+        long length();
+
+        void write(long from, long length, WritableByteChannel out) throws IOException;
+    }
+
+    private record Bytes(byte[] bytes) implements Segment {
+        @Override
+        public long length() {
+            return bytes.length;
+        }
+
+        @Override
+        public void write(long from, long length, WritableByteChannel out) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, (int) from, (int) length);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    private record Body(Source source) implements Segment {
+        @Override
+        public long length() {
+            return source.size;
+        }
+
+        @Override
+        public void write(long from, long length, WritableByteChannel out) throws IOException {
+            FileDto file = source.file;
+            try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+                long modified = Files.getLastModifiedTime(file.path()).toMillis();
+                if (channel.size() != source.size || modified != source.modified) {
+                    throw new IOException(file.getName() + " changed since the archive layout was computed");
+                }
+                long done = 0;
+                while (done < length) {
+                    long n = channel.transferTo(from + done, length - done, out);
+                    if (n <= 0) {
+                        throw new IOException(file.getName() + " ended early");
+                    }
+                    done += n;
+                }
+            }
+        }
+    }
+
+    private record Source(FileDto file, long size, long modified, long crc) {
+    }
+
+    /**
+     * Collects what the writer emits between two {@link #cut()}s as one bytes segment.
+     */
+    private static final class SegmentRecorder implements WritableByteChannel {
+        private final List<Segment> segments = new ArrayList<>();
+        private ByteBuffer pending = ByteBuffer.allocate(256);
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            if (pending.remaining() < n) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + n));
+                pending = larger.put(pending.flip());
+            }
+            pending.put(src);
+            return n;
+        }
+
+        private void cut() {
+            if (pending.position() > 0) {
+                segments.add(new Bytes(Arrays.copyOf(pending.array(), pending.position())));
+                pending.clear();
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A zip archive as a cold {@link Flow.Publisher}: every subscriber gets its own archive,
+ * produced only as fast as it requests chunks. Work runs on the given executor and only while
+ * there is outstanding demand, so a stalled client holds no thread.
+ * <p>
+ * Each chunk is a fresh buffer owned by the subscriber.
+ */
+public final class ArchivePublisher implements Flow.Publisher<ByteBuffer> {
+
+    private final List<FileDto> files;
+    private final EntryMethod method;
+    private final int level;
+    private final int chunkSize;
+    private final Executor executor;
+
+    ArchivePublisher(List<FileDto> files, EntryMethod method, int level, int chunkSize, Executor executor) {
+        this.files = List.copyOf(files);
+        this.method = method;
+        this.level = level;
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        ArchiveSubscription subscription = new ArchiveSubscription(subscriber);
+        subscription.start();
+    }
+
+    private final class ArchiveSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        // work-in-progress counter; whoever moves it off zero runs the drain loop
+        private final AtomicInteger wip = new AtomicInteger(1);
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private volatile Throwable invalidRequest;
+        private ZipChunkProducer producer;
+        private boolean done;
+
+        private ArchiveSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        // wip starts at 1, so requests made inside onSubscribe only queue up until it returns
+        private void start() {
+            subscriber.onSubscribe(this);
+            if (wip.decrementAndGet() != 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("non-positive request: " + n);
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (done) {
+                    return;
+                }
+                if (cancelled.get()) {
+                    terminate(null, false);
+                    return;
+                }
+                if (invalidRequest != null) {
+                    terminate(invalidRequest, true);
+                    return;
+                }
+                long requested = demand.get();
+                long emitted = 0;
+                while (emitted != requested && !cancelled.get()) {
+                    ByteBuffer chunk;
+                    try {
+                        if (producer == null) {
+                            producer = new ZipChunkProducer(files.iterator(), method, level, chunkSize);
+                        }
+                        chunk = producer.next();
+                    } catch (Throwable e) {
+                        terminate(e, true);
+                        return;
+                    }
+                    if (chunk == null) {
+                        terminate(null, true);
+                        return;
+                    }
+                    subscriber.onNext(chunk);
+                    emitted++;
+                }
+                if (emitted != 0 && requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void terminate(Throwable error, boolean signal) {
+            done = true;
+            if (producer != null) {
+                try {
+                    producer.close();
+                } catch (Exception e) {
+                    error = error == null ? e : error;
+                }
+            }
+            if (!signal) {
+                return;
+            }
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
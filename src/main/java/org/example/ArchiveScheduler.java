@@ -0,0 +1,211 @@
+package org.example;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admits concurrent {@link ZipStreamer} jobs against a global byte budget so that together they
+ * cannot hold more than {@code budget} bytes of buffers, deflater state and per-entry heap,
+ * whatever the load.
+ * <p>
+ * A job reserves its {@link ZipStreamer#footprint(List)} before it starts and returns it when it
+ * ends. Jobs take their direct buffers from {@link #buffers()} and hand them back when they end.
+ * Before a job starts, the scheduler drops kept buffers beyond what the running jobs leave of
+ * the budget. Steady load thus reuses the same direct memory instead of allocating per job and
+ * waiting for GC to free it.
+ * Direct buffers count against {@code -XX:MaxDirectMemorySize}, so the budget must fit within
+ * it as well as within the heap. Jobs that do not fit wait in a FIFO queue and are started in
+ * arrival order, so a large job is never overtaken forever by small ones. With {@code degrade} a job that does not fit as
+ * configured runs in a smaller configuration instead, if one fits right away: first sequential
+ * with two buffers, then additionally STORED with small buffers. A job larger than the whole
+ * budget in every configuration is rejected.
+ * <p>
+ * Admitted jobs run on {@code executor}; waiting jobs hold no thread. The default executor
+ * starts daemon threads on demand, whose number is bounded by how many jobs fit the budget.
+ */
+@Getter
+@Builder
+public class ArchiveScheduler {
+
+    static final int MIN_BUFFER_SIZE = 8 * 1024;
+
+    @Builder.Default
+    private final long budget = 64L * 1024 * 1024;
+    @Builder.Default
+    private final boolean degrade = true;
+    @Builder.Default
+    private final Executor executor = Executors.newCachedThreadPool(daemonThreads());
+
+    @Getter(AccessLevel.NONE)
+    private final Deque<Admission> queue = new ArrayDeque<>();
+    // written under the monitor, read without it
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong reserved = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private final DirectBuffers buffers = new DirectBuffers();
+
+    public static ArchiveScheduler defaults() {
+        return ArchiveScheduler.builder().build();
+    }
+
+    /**
+     * Writes the archive once it is admitted. {@code out} is flushed but left open; the future
+     * completes when the archive is finished, or exceptionally with the write's failure.
+     */
+    public CompletableFuture<Void> submit(ZipStreamer streamer, List<FileDto> files, OutputStream out) {
+        Admission admission = new Admission(candidates(streamer, files), files, out);
+        if (admission.candidates.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "footprint of " + streamer.footprint(files) + " bytes exceeds the budget of " + budget));
+        }
+        synchronized (this) {
+            queue.add(admission);
+            admit();
+        }
+        return admission.result;
+    }
+
+    /**
+     * Bytes reserved by the running jobs.
+     */
+    public long reserved() {
+        return reserved.get();
+    }
+
+    public synchronized int queued() {
+        return queue.size();
+    }
+
+    /**
+     * The direct buffers shared by the jobs.
+     */
+    public DirectBuffers buffers() {
+        return buffers;
+    }
+
+    /**
+     * The configurations a job may run in, largest first, restricted to those within the budget.
+     */
+    List<Candidate> candidates(ZipStreamer streamer, List<FileDto> files) {
+        List<ZipStreamer> all = degrade ? List.of(streamer, sequential(streamer), minimal(streamer)) : List.of(streamer);
+        return all.stream()
+                .map(s -> new Candidate(s.toBuilder().buffers(buffers).build(), s.footprint(files)))
+                .filter(c -> c.footprint() <= budget)
+                .toList();
+    }
+
+    private static ZipStreamer sequential(ZipStreamer streamer) {
+        return streamer.toBuilder()
+                .parallelism(1)
+                .prefetchDepth(0)
+                .bufferCount(2)
+                .build();
+    }
+
+    private static ZipStreamer minimal(ZipStreamer streamer) {
+        return sequential(streamer).toBuilder()
+                .method(EntryMethod.STORED)
+                .bufferSize(Math.min(streamer.getBufferSize(), MIN_BUFFER_SIZE))
+                .build();
+    }
+
+    /**
+     * Starts queued jobs in order while the head fits. Only the head may degrade, so later jobs
+     * never jump the queue.
+     */
+    private void admit() {
+        Admission head;
+        while ((head = queue.peek()) != null) {
+            Candidate fitting = head.fitting(budget - reserved.get());
+            if (fitting == null) {
+                return;
+            }
+            queue.poll();
+            // what is kept beyond the other jobs' reservations is dropped; the new job reuses the rest
+            buffers.trim(budget - reserved.get());
+            reserved.addAndGet(fitting.footprint());
+            start(head, fitting.streamer(), fitting.footprint());
+        }
+    }
+
+    private void start(Admission admission, ZipStreamer streamer, long footprint) {
+        try {
+            executor.execute(() -> {
+                Throwable failure = null;
+                try {
+                    streamer.write(admission.files, admission.out);
+                } catch (IOException e) {
+                    failure = new UncheckedIOException(e);
+                } catch (RuntimeException | Error e) {
+                    failure = e;
+                }
+                // the budget is back before anyone waiting on the result runs
+                release(footprint);
+                if (failure == null) {
+                    admission.result.complete(null);
+                } else {
+                    admission.result.completeExceptionally(failure);
+                }
+            });
+        } catch (RuntimeException e) {
+            reserved.addAndGet(-footprint);
+            admission.result.completeExceptionally(e);
+        }
+    }
+
+    private synchronized void release(long footprint) {
+        reserved.addAndGet(-footprint);
+        admit();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "zip-job-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    record Candidate(ZipStreamer streamer, long footprint) {
+    }
+
+    private static final class Admission {
+        private final List<Candidate> candidates;
+        private final List<FileDto> files;
+        private final OutputStream out;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private Admission(List<Candidate> candidates, List<FileDto> files, OutputStream out) {
+            this.candidates = candidates;
+            this.files = files;
+            this.out = out;
+        }
+
+        /**
+         * The largest configuration within {@code available} bytes, or {@code null} to wait.
+         */
+        private Candidate fitting(long available) {
+            for (Candidate candidate : candidates) {
+                if (candidate.footprint() <= available) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
+}
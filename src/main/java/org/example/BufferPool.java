@@ -0,0 +1,97 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fixed set of reusable I/O buffers. Every buffer is allocated up front, so the
+ * footprint is {@code bufferCount * bufferSize} no matter how much data flows through.
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+    private final int bufferCount;
+    private final BlockingQueue<ByteBuffer> free;
+    private final DirectBuffers source;
+
+    public BufferPool(int bufferCount, int bufferSize) {
+        this(bufferCount, bufferSize, false);
+    }
+
+    /**
+     * @param direct allocate the buffers off-heap, which lets channel reads and writes skip the
+     *               temporary copy the JDK makes for heap buffers
+     */
+    public BufferPool(int bufferCount, int bufferSize, boolean direct) {
+        this(bufferCount, bufferSize, direct, null);
+    }
+
+    /**
+     * Direct buffers taken from {@code source}, or allocated if it is {@code null}; {@link #close}
+     * hands them back.
+     */
+    BufferPool(int bufferCount, int bufferSize, DirectBuffers source) {
+        this(bufferCount, bufferSize, true, source);
+    }
+
+    private BufferPool(int bufferCount, int bufferSize, boolean direct, DirectBuffers source) {
+        if (bufferCount < 1 || bufferSize < 1) {
+            throw new IllegalArgumentException("bufferCount and bufferSize must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.bufferCount = bufferCount;
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        this.source = source;
+        for (int i = 0; i < bufferCount; i++) {
+            if (source != null) {
+                free.add(source.take(bufferSize));
+            } else {
+                free.add(direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize));
+            }
+        }
+    }
+
+    public ByteBuffer acquire() throws InterruptedException {
+        ByteBuffer buffer = free.take();
+        buffer.clear();
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || !free.offer(buffer)) {
+            throw new IllegalArgumentException("buffer does not belong to this pool");
+        }
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public int bufferCount() {
+        return bufferCount;
+    }
+
+    public int available() {
+        return free.size();
+    }
+
+    public long footprint() {
+        return (long) bufferCount * bufferSize;
+    }
+
+    /**
+     * Hands the buffers back to the {@link DirectBuffers} they came from. Buffers still
+     * acquired are not handed back and are left to the garbage collector. The pool must not be
+     * used afterwards.
+     */
+    void close() {
+        if (source == null) {
+            return;
+        }
+        ByteBuffer buffer;
+        while ((buffer = free.poll()) != null) {
+            source.give(buffer);
+        }
+    }
+}
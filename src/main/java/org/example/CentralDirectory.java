@@ -0,0 +1,93 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Central directory records kept in parallel primitive arrays, about 40 bytes per entry plus
+ * its name, instead of one object graph per entry. This is the only state the writer keeps
+ * for entries already written.
+ */
+final class CentralDirectory {
+
+    // the primitive slots of one record, without its name
+    static final int BYTES_PER_ENTRY = 4 + 4 + 4 + 8 + 8 + 8;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] names = new byte[INITIAL_CAPACITY * 16];
+    private int[] nameEnds = new int[INITIAL_CAPACITY];
+    // method in the low 16 bits, general purpose flags in the high 16 bits
+    private int[] methodAndFlags = new int[INITIAL_CAPACITY];
+    private int[] crcs = new int[INITIAL_CAPACITY];
+    private long[] compressedSizes = new long[INITIAL_CAPACITY];
+    private long[] sizes = new long[INITIAL_CAPACITY];
+    private long[] offsets = new long[INITIAL_CAPACITY];
+    private int count;
+
+    void add(byte[] name, int method, int flags, long crc, long compressedSize, long size, long offset) {
+        if (count == offsets.length) {
+            grow();
+        }
+        int nameStart = nameStart(count);
+        if (nameStart + name.length > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, nameStart + name.length));
+        }
+        System.arraycopy(name, 0, names, nameStart, name.length);
+        nameEnds[count] = nameStart + name.length;
+        methodAndFlags[count] = flags << 16 | method & 0xFFFF;
+        crcs[count] = (int) crc;
+        compressedSizes[count] = compressedSize;
+        sizes[count] = size;
+        offsets[count] = offset;
+        count++;
+    }
+
+    int size() {
+        return count;
+    }
+
+    byte[] names() {
+        return names;
+    }
+
+    int nameStart(int i) {
+        return i == 0 ? 0 : nameEnds[i - 1];
+    }
+
+    int nameLength(int i) {
+        return nameEnds[i] - nameStart(i);
+    }
+
+    int method(int i) {
+        return methodAndFlags[i] & 0xFFFF;
+    }
+
+    int flags(int i) {
+        return methodAndFlags[i] >>> 16;
+    }
+
+    long crc(int i) {
+        return crcs[i] & 0xFFFFFFFFL;
+    }
+
+    long compressedSize(int i) {
+        return compressedSizes[i];
+    }
+
+    long size(int i) {
+        return sizes[i];
+    }
+
+    long offset(int i) {
+        return offsets[i];
+    }
+
+    private void grow() {
+        int capacity = offsets.length * 2;
+        nameEnds = Arrays.copyOf(nameEnds, capacity);
+        methodAndFlags = Arrays.copyOf(methodAndFlags, capacity);
+        crcs = Arrays.copyOf(crcs, capacity);
+        compressedSizes = Arrays.copyOf(compressedSizes, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+    }
+}
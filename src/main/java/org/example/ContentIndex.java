@@ -0,0 +1,149 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Sources already compressed, looked up by size, for {@link Dedupe#REPLAY}. Kept in parallel
+ * primitive arrays like {@link CentralDirectory}: about 28 bytes per source plus its path, and
+ * 32 more once its content has been hashed. Sources of the same size are chained from the
+ * latest one back.
+ */
+final class ContentIndex {
+
+    static final int NONE = -1;
+
+    static final int DIGEST_SIZE = 32;
+    // the primitive slots of one source, with two table slots, without its path or digest
+    static final int BYTES_PER_SOURCE = 8 + 4 + 4 + 4 + 2 * 4;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int UNHASHED = 0;
+    private static final int CHANGED = -1;
+
+    private long[] sizes = new long[INITIAL_CAPACITY];
+    private int[] previous = new int[INITIAL_CAPACITY];
+    private byte[] paths = new byte[INITIAL_CAPACITY * 32];
+    private int[] pathEnds = new int[INITIAL_CAPACITY];
+    // UNHASHED, CHANGED, or 1 + the digest's slot in digests
+    private int[] digestSlots = new int[INITIAL_CAPACITY];
+    private byte[] digests = new byte[0];
+    private int digestCount;
+    // open addressing by size, holding 1 + the latest source of that size, 0 when free
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private int count;
+
+    /**
+     * @param path   the source, to hash when a later one has the same size
+     * @param digest its content digest if already known
+     * @return the index of the source
+     */
+    int add(long size, String path, byte[] digest) {
+        if (count == sizes.length) {
+            grow();
+        }
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        int pathStart = pathStart(count);
+        if (pathStart + pathBytes.length > paths.length) {
+            paths = Arrays.copyOf(paths, Math.max(paths.length * 2, pathStart + pathBytes.length));
+        }
+        System.arraycopy(pathBytes, 0, paths, pathStart, pathBytes.length);
+        pathEnds[count] = pathStart + pathBytes.length;
+        sizes[count] = size;
+        digestSlots[count] = UNHASHED;
+        int slot = slot(size);
+        previous[count] = table[slot] - 1;
+        table[slot] = count + 1;
+        if (digest != null) {
+            digest(count, digest);
+        }
+        return count++;
+    }
+
+    /**
+     * @return the latest source of {@code size} bytes, or {@link #NONE}
+     */
+    int latest(long size) {
+        return table[slot(size)] - 1;
+    }
+
+    /**
+     * @return the source of the same size before {@code i}, or {@link #NONE}
+     */
+    int previous(int i) {
+        return previous[i];
+    }
+
+    String path(int i) {
+        int start = pathStart(i);
+        return new String(paths, start, pathEnds[i] - start, StandardCharsets.UTF_8);
+    }
+
+    boolean hashed(int i) {
+        return digestSlots[i] != UNHASHED;
+    }
+
+    /**
+     * @return the digest, or {@code null} if the source had changed when it was hashed
+     */
+    byte[] digest(int i) {
+        int slot = digestSlots[i];
+        if (slot == UNHASHED) {
+            throw new IllegalStateException("source " + i + " is not hashed");
+        }
+        if (slot == CHANGED) {
+            return null;
+        }
+        int start = (slot - 1) * DIGEST_SIZE;
+        return Arrays.copyOfRange(digests, start, start + DIGEST_SIZE);
+    }
+
+    /**
+     * @param digest the content digest, or {@code null} if the source has changed since compressed
+     */
+    void digest(int i, byte[] digest) {
+        if (digest == null) {
+            digestSlots[i] = CHANGED;
+            return;
+        }
+        if (digest.length != DIGEST_SIZE) {
+            throw new IllegalArgumentException("expected a " + DIGEST_SIZE + " byte digest, got " + digest.length);
+        }
+        if ((digestCount + 1) * DIGEST_SIZE > digests.length) {
+            digests = Arrays.copyOf(digests, Math.max(digests.length * 2, INITIAL_CAPACITY * DIGEST_SIZE));
+        }
+        System.arraycopy(digest, 0, digests, digestCount * DIGEST_SIZE, DIGEST_SIZE);
+        digestSlots[i] = ++digestCount;
+    }
+
+    private int pathStart(int i) {
+        return i == 0 ? 0 : pathEnds[i - 1];
+    }
+
+    /**
+     * The slot holding {@code size}, or the free slot where it would go.
+     */
+    private int slot(long size) {
+        int mask = table.length - 1;
+        int slot = Long.hashCode(size * 0x9E3779B97F4A7C15L) & mask;
+        while (table[slot] != 0 && sizes[table[slot] - 1] != size) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = sizes.length * 2;
+        sizes = Arrays.copyOf(sizes, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        pathEnds = Arrays.copyOf(pathEnds, capacity);
+        digestSlots = Arrays.copyOf(digestSlots, capacity);
+        // rehash the latest source of every size; the chains behind them are unchanged
+        int[] old = table;
+        table = new int[capacity * 2];
+        for (int latest : old) {
+            if (latest != 0) {
+                table[slot(sizes[latest - 1])] = latest;
+            }
+        }
+    }
+}
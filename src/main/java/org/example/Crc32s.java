@@ -0,0 +1,92 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * CRC-32 helpers missing from {@link java.util.zip.CRC32}.
+ */
+final class Crc32s {
+
+    private static final int GF2_DIM = 32;
+
+    private Crc32s() {
+    }
+
+    /**
+     * Returns the crc of {@code A + B} given {@code crc(A)}, {@code crc(B)} and the length of
+     * {@code B}. Port of zlib's {@code crc32_combine}, so chunks can be checksummed in parallel.
+     */
+    static long combine(long crc1, long crc2, long len2) {
+        if (len2 <= 0) {
+            return crc1;
+        }
+        long[] even = new long[GF2_DIM];
+        long[] odd = new long[GF2_DIM];
+
+        // operator for one zero bit
+        odd[0] = 0xEDB88320L;
+        long row = 1;
+        for (int n = 1; n < GF2_DIM; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        square(even, odd); // two zero bits
+        square(odd, even); // four zero bits
+
+        // apply len2 zero bytes to crc1, squaring the operator for each bit of len2
+        do {
+            square(even, odd);
+            if ((len2 & 1) != 0) {
+                crc1 = times(even, crc1);
+            }
+            len2 >>= 1;
+            if (len2 == 0) {
+                break;
+            }
+            square(odd, even);
+            if ((len2 & 1) != 0) {
+                crc1 = times(odd, crc1);
+            }
+            len2 >>= 1;
+        } while (len2 != 0);
+
+        return crc1 ^ crc2;
+    }
+
+    /**
+     * Checksums the first {@code size} bytes of {@code source} with positional reads, leaving
+     * the channel position alone.
+     */
+    static long of(FileChannel source, long size, ByteBuffer buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        long position = 0;
+        while (position < size) {
+            int n = source.read(buffer.clear().limit((int) Math.min(buffer.capacity(), size - position)), position);
+            if (n == -1) {
+                throw new IOException("source shrank while reading, expected " + size + " bytes");
+            }
+            crc.update(buffer.flip());
+            position += n;
+        }
+        return crc.getValue();
+    }
+
+    private static long times(long[] mat, long vec) {
+        long sum = 0;
+        for (int i = 0; vec != 0; i++, vec >>>= 1) {
+            if ((vec & 1) != 0) {
+                sum ^= mat[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void square(long[] square, long[] mat) {
+        for (int n = 0; n < GF2_DIM; n++) {
+            square[n] = times(mat, mat[n]);
+        }
+    }
+}
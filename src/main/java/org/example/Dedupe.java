@@ -0,0 +1,20 @@
+package org.example;
+
+/**
+ * What {@link ZipStreamer} does with sources whose content it has already written.
+ */
+public enum Dedupe {
+    /**
+     * Every entry is read and written on its own.
+     */
+    OFF,
+    /**
+     * Repeated DEFLATED content is compressed once per archive. Compressed bodies are written
+     * to the configured {@link EntryCache}, or a temporary spool, as they are produced; a later
+     * source of the same size is hashed together with the earlier ones, and on a match the
+     * spooled body is copied instead of compressed again. Sources of a new size are not hashed.
+     * Every copy keeps its own local header and body, so the archive stays readable by any zip
+     * reader.
+     */
+    REPLAY
+}
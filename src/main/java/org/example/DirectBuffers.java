@@ -0,0 +1,70 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Direct buffers handed back by finished jobs, kept for the next ones instead of being left to
+ * the garbage collector. A direct buffer's memory is only freed once GC runs its cleaner, so
+ * allocating fresh ones per job lets direct memory grow with load no matter how few are in use
+ * at a time. Buffers are reused by exact size; {@link #trim} drops what is kept beyond a limit.
+ * Thread-safe.
+ */
+public final class DirectBuffers {
+
+    private final Map<Integer, Deque<ByteBuffer>> free = new HashMap<>();
+    private long retained;
+    private long allocated;
+
+    synchronized ByteBuffer take(int size) {
+        Deque<ByteBuffer> buffers = free.get(size);
+        if (buffers != null && !buffers.isEmpty()) {
+            retained -= size;
+            return buffers.pop().clear();
+        }
+        allocated += size;
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    synchronized void give(ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("not a direct buffer");
+        }
+        free.computeIfAbsent(buffer.capacity(), size -> new ArrayDeque<>()).push(buffer);
+        retained += buffer.capacity();
+    }
+
+    /**
+     * Drops kept buffers until at most {@code maxBytes} are left.
+     */
+    synchronized void trim(long maxBytes) {
+        Iterator<Deque<ByteBuffer>> sizes = free.values().iterator();
+        while (retained > Math.max(0, maxBytes) && sizes.hasNext()) {
+            Deque<ByteBuffer> buffers = sizes.next();
+            while (retained > maxBytes && !buffers.isEmpty()) {
+                retained -= buffers.pop().capacity();
+            }
+            if (buffers.isEmpty()) {
+                sizes.remove();
+            }
+        }
+    }
+
+    /**
+     * Bytes kept for reuse.
+     */
+    public synchronized long retained() {
+        return retained;
+    }
+
+    /**
+     * Bytes of direct buffers allocated so far, reused ones counted once.
+     */
+    public synchronized long allocated() {
+        return allocated;
+    }
+}
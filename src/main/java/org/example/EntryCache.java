@@ -0,0 +1,281 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of deflated entry bodies, keyed by the SHA-256 of the source content and the
+ * compression level. A hit carries the crc and sizes, so the body can be spliced into a new
+ * archive with {@link FileChannel#transferTo} instead of being compressed again.
+ * <p>
+ * The cache keeps at most {@code maxBytes} on disk and evicts the least recently used
+ * entries beyond that. Entries already on disk are picked up again on start, oldest first.
+ */
+public final class EntryCache {
+
+    private static final String SUFFIX = ".deflate";
+    private static final String PENDING_PREFIX = "pending-";
+    private static final String PENDING_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x5a454331; // "ZEC1"
+    static final int HEADER_SIZE = 4 + 8 + 8;
+    // rough heap per known body: its LinkedHashMap entry, key string and boxed size
+    static final int HEAP_PER_ENTRY = 160;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public EntryCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(directory)) {
+            existing = files.toList();
+        }
+        List<Path> bodies = new ArrayList<>();
+        for (Path path : existing) {
+            String name = path.getFileName().toString();
+            if (name.endsWith(SUFFIX)) {
+                bodies.add(path);
+            } else if (name.startsWith(PENDING_PREFIX) && name.endsWith(PENDING_SUFFIX)) {
+                // left by a writer that crashed before commit; never counted in bytes
+                Files.deleteIfExists(path);
+            }
+        }
+        bodies.sort(Comparator.comparing(EntryCache::lastModified));
+        for (Path path : bodies) {
+            String name = path.getFileName().toString();
+            long size = Files.size(path);
+            entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+            bytes += size;
+        }
+        evict();
+    }
+
+    /**
+     * A cache in a new temporary directory, for one archive; {@link #delete} removes it.
+     */
+    static EntryCache temporary(long maxBytes) throws IOException {
+        return new EntryCache(Files.createTempDirectory("zip-bodies-"), maxBytes);
+    }
+
+    /**
+     * Removes every entry and the directory itself.
+     */
+    synchronized void delete() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(directory);
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * SHA-256 of the first {@code size} bytes of {@code source}.
+     */
+    static byte[] digest(FileChannel source, long size, ByteBuffer buffer) throws IOException {
+        MessageDigest digest = sha256();
+        long position = 0;
+        while (position < size) {
+            int n = source.read(buffer.clear().limit((int) Math.min(buffer.capacity(), size - position)), position);
+            if (n == -1) {
+                throw new IOException("source shrank while hashing, expected " + size + " bytes");
+            }
+            digest.update(buffer.flip());
+            position += n;
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Content key of a source with the given {@link #digest} for the given level.
+     */
+    static String key(byte[] digest, int level) {
+        return HexFormat.of().formatHex(digest) + "-" + level;
+    }
+
+    /**
+     * @return the cached body, or {@code null} on a miss. The caller must close the hit.
+     */
+    Hit lookup(String key) throws IOException {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path(key), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // evicted by someone else between the lookup and the open
+            synchronized (this) {
+                hits--;
+                misses++;
+            }
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) != -1) {
+            // read the whole header
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException("corrupt cache entry " + key);
+        }
+        return new Hit(channel, header.getLong(), header.getLong(), channel.size() - HEADER_SIZE);
+    }
+
+    /**
+     * Starts recording a deflated body for {@code key}; it becomes visible on {@link Pending#commit}.
+     */
+    Pending begin(String key) throws IOException {
+        Path temp = Files.createTempFile(directory, PENDING_PREFIX, PENDING_SUFFIX);
+        FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+        channel.position(HEADER_SIZE);
+        return new Pending(key, temp, channel);
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void admit(String key, Path temp, long size) throws IOException {
+        if (size > maxBytes) {
+            Files.deleteIfExists(temp);
+            return;
+        }
+        Files.move(temp, path(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Long previous = entries.put(key, size);
+        bytes += size - (previous == null ? 0 : previous);
+        evict();
+    }
+
+    private synchronized void evict() throws IOException {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            Files.deleteIfExists(path(entry.getKey()));
+            bytes -= entry.getValue();
+            evictions++;
+            eldest.remove();
+        }
+    }
+
+    private Path path(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every JVM", e);
+        }
+    }
+
+    record Hit(FileChannel body, long crc, long size, long compressedSize) implements AutoCloseable {
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    /**
+     * A body being recorded; compressed bytes are written to {@link #channel()} as they are
+     * produced.
+     */
+    final class Pending implements AutoCloseable {
+        private final String key;
+        private final Path temp;
+        private final FileChannel channel;
+        private boolean done;
+
+        private Pending(String key, Path temp, FileChannel channel) {
+            this.key = key;
+            this.temp = temp;
+            this.channel = channel;
+        }
+
+        WritableByteChannel channel() {
+            return channel;
+        }
+
+        void commit(long crc, long size) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putLong(crc).putLong(size).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            long fileSize = channel.size();
+            channel.close();
+            done = true;
+            admit(key, temp, fileSize);
+        }
+
+        /**
+         * Drops the recording unless it was committed.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!done) {
+                done = true;
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
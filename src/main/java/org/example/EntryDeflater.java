@@ -0,0 +1,106 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Deflates one entry at a time into a {@link ZipChannelWriter}, chunk by chunk. The deflater
+ * and output buffer are reused for every entry.
+ */
+final class EntryDeflater implements AutoCloseable {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final Deflater deflater;
+    private final ByteBuffer output;
+    private final CRC32 crc = new CRC32();
+    private ZipChannelWriter writer;
+    private WritableByteChannel tee;
+    private long size;
+
+    EntryDeflater(int level, ByteBuffer output) {
+        this.deflater = new Deflater(level, true);
+        this.output = output;
+    }
+
+    void begin(ZipChannelWriter writer, String name) throws IOException {
+        begin(writer, name, null);
+    }
+
+    /**
+     * @param tee also receives the compressed body, if not {@code null}
+     */
+    void begin(ZipChannelWriter writer, String name, WritableByteChannel tee) throws IOException {
+        writer.putEntry(name, ZipChannelWriter.DEFLATED);
+        this.writer = writer;
+        this.tee = tee;
+        this.size = 0;
+        crc.reset();
+        deflater.reset();
+        output.clear();
+    }
+
+    /**
+     * Consumes {@code chunk} completely. The deflater lets go of it before returning, so the
+     * caller may release or reuse it right away.
+     */
+    void update(ByteBuffer chunk) throws IOException {
+        int start = chunk.position();
+        crc.update(chunk);
+        chunk.position(start);
+        size += chunk.remaining();
+        deflater.setInput(chunk);
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+        deflater.setInput(EMPTY);
+    }
+
+    Result finish() throws IOException {
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflate();
+        }
+        flush();
+        writer.closeEntry(crc.getValue(), size);
+        writer = null;
+        tee = null;
+        return new Result(crc.getValue(), size);
+    }
+
+    private void deflate() throws IOException {
+        if (!output.hasRemaining()) {
+            flush();
+        }
+        deflater.deflate(output);
+    }
+
+    private void flush() throws IOException {
+        output.flip();
+        writer.write(output);
+        if (tee != null) {
+            writeFully(tee, output.rewind());
+        }
+        output.clear();
+    }
+
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() {
+        deflater.end();
+    }
+
+    /**
+     * Checksum and uncompressed size of a finished entry.
+     */
+    record Result(long crc, long size) {
+    }
+}
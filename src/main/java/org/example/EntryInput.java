@@ -0,0 +1,49 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The bytes of one source, handed out in chunks. A chunk stays valid until it is released.
+ */
+interface EntryInput extends Closeable {
+
+    /**
+     * @return the next chunk, or {@code null} once the source is exhausted
+     */
+    ByteBuffer next() throws IOException;
+
+    void release(ByteBuffer chunk);
+
+    /**
+     * Maps sources of at least {@code mapThreshold} bytes, reads smaller ones through
+     * {@code buffer}.
+     */
+    static EntryInput open(FileChannel channel, ByteBuffer buffer, long mapThreshold, int mapWindow)
+            throws IOException {
+        return channel.size() >= mapThreshold ? new MappedEntryInput(channel, mapWindow) : of(channel, buffer);
+    }
+
+    /**
+     * Reads a channel into one reusable buffer; the caller keeps ownership of the buffer.
+     */
+    static EntryInput of(FileChannel channel, ByteBuffer buffer) {
+        return new EntryInput() {
+            @Override
+            public ByteBuffer next() throws IOException {
+                return channel.read(buffer.clear()) == -1 ? null : buffer.flip();
+            }
+
+            @Override
+            public void release(ByteBuffer chunk) {
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+}
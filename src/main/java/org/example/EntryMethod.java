@@ -0,0 +1,37 @@
+package org.example;
+
+import java.util.Locale;
+import java.util.Set;
+
+public enum EntryMethod {
+    DEFLATED,
+    STORED,
+    /**
+     * STORED for sources that are already compressed (media, pdf, nested archives), DEFLATED
+     * for everything else.
+     */
+    AUTO;
+
+    private static final Set<String> PRECOMPRESSED_EXTENSIONS = Set.of(
+            "zip", "jar", "gz", "tgz", "bz2", "xz", "zst", "7z", "rar",
+            "jpg", "jpeg", "png", "gif", "webp", "heic",
+            "mp3", "m4a", "aac", "ogg", "mp4", "m4v", "mov", "mkv", "webm", "avi",
+            "pdf", "docx", "xlsx", "pptx"
+    );
+
+    public boolean isStored(FileDto file) {
+        return switch (this) {
+            case DEFLATED -> false;
+            case STORED -> true;
+            case AUTO -> isPrecompressed(file.getUrl());
+        };
+    }
+
+    static boolean isPrecompressed(String path) {
+        int dot = path.lastIndexOf('.');
+        if (dot < 0 || dot < path.lastIndexOf('/') || dot < path.lastIndexOf('\\')) {
+            return false;
+        }
+        return PRECOMPRESSED_EXTENSIONS.contains(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+}
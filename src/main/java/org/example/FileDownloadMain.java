@@ -1,30 +1,33 @@
 package org.example;
 
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Getter;
-
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class FileDownloadMain {
 
-    public static void main(String[] args) {
-
+    public static void main(String[] args) throws IOException {
+        try (OutputStream os = new FileOutputStream("output.zip")) {
+            ZipStreamer.defaults().write(fileDtos(), os);
+        }
+    }
 
+    public static Flow.Publisher<ByteBuffer> publishArchive(Executor executor) {
+        return ZipStreamer.defaults().publisher(getFileDtos(), executor);
     }
 
     private static List<FileDto> getFileDtos() {
-        return IntStream.range(1, 100).mapToObj(i -> FileDto.builder().name("test " + i).build()).toList(); // approx 2gb
+        return fileDtos().toList(); // approx 2gb
     }
 
-    @Getter
-    @Builder
-    @AllArgsConstructor
-    private static class FileDto {
-        private static final String FILE_PATH = "C:/Users/laon/Downloads/test.txt";
-        private final String name;
-        private final String url = FILE_PATH;
+    private static Stream<FileDto> fileDtos() {
+        return IntStream.range(1, 100).mapToObj(i -> FileDto.builder().name("test " + i).build());
     }
 
 }
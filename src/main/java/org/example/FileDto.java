@@ -0,0 +1,21 @@
+package org.example;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class FileDto {
+    private static final String FILE_PATH = "C:/Users/laon/Downloads/test.txt";
+    private final String name;
+    @Builder.Default
+    private final String url = FILE_PATH;
+
+    public Path path() {
+        return Path.of(url);
+    }
+}
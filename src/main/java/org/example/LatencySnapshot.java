@@ -0,0 +1,37 @@
+package org.example;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Point-in-time view of a {@link LatencyHistogram} in microseconds, as JMX shows it.
+ */
+@Getter
+@ToString
+public final class LatencySnapshot {
+
+    private final long count;
+    private final double meanMicros;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long p999Micros;
+    private final long maxMicros;
+
+    @ConstructorParameters({"count", "meanMicros", "p50Micros", "p99Micros", "p999Micros", "maxMicros"})
+    public LatencySnapshot(long count, double meanMicros, long p50Micros, long p99Micros, long p999Micros,
+                           long maxMicros) {
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    static LatencySnapshot of(LatencyHistogram nanos) {
+        return new LatencySnapshot(nanos.count(), nanos.mean() / 1000, nanos.percentile(50) / 1000,
+                nanos.percentile(99) / 1000, nanos.percentile(99.9) / 1000, nanos.max() / 1000);
+    }
+}
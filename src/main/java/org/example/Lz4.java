@@ -0,0 +1,205 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * LZ4 block codec: greedy matching over a single hash table, no entropy stage. It trades ratio
+ * for speed, compressing several times faster than DEFLATE. The output is the standard block
+ * format, so any LZ4 implementation can decode it.
+ */
+final class Lz4 {
+
+    static final int MIN_LEVEL = 1;
+    static final int MAX_LEVEL = 9;
+    static final int DEFAULT_LEVEL = 5;
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    // a match may not start within the last 12 bytes of a block
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int SKIP_STRENGTH = 6;
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final int[] table;
+    private final int hashShift;
+    private final int acceleration;
+
+    /**
+     * Level 1 is the fastest, 9 the smallest output: higher levels use a larger hash table and
+     * skip ahead more slowly through incompressible data.
+     */
+    Lz4(int level) {
+        if (level < MIN_LEVEL || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("LZ4 level must be in [1, 9], was " + level);
+        }
+        int hashBits = 11 + (level + 1) / 2;
+        this.table = new int[1 << hashBits];
+        this.hashShift = 32 - hashBits;
+        this.acceleration = MAX_LEVEL + 1 - level;
+    }
+
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses {@code src[0, length)} into {@code dst}, which must hold
+     * {@link #maxCompressedLength}.
+     *
+     * @return the compressed length
+     */
+    int compress(byte[] src, int length, byte[] dst) {
+        int anchor = 0;
+        int op = 0;
+        if (length >= MATCH_FIND_LIMIT + 1) {
+            Arrays.fill(table, -1);
+            int limit = length - MATCH_FIND_LIMIT;
+            int matchLimit = length - LAST_LITERALS;
+            int ip = 0;
+            while (true) {
+                int ref;
+                int searches = acceleration << SKIP_STRENGTH;
+                while (true) {
+                    if (ip > limit) {
+                        return literals(src, anchor, length, dst, op);
+                    }
+                    int sequence = readInt(src, ip);
+                    int h = sequence * 0x9E3779B1 >>> hashShift;
+                    ref = table[h];
+                    table[h] = ip;
+                    if (ref >= 0 && ip - ref <= MAX_DISTANCE && readInt(src, ref) == sequence) {
+                        break;
+                    }
+                    ip += searches++ >>> SKIP_STRENGTH;
+                }
+                while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = matchLength(src, ref + MIN_MATCH, ip + MIN_MATCH, matchLimit) + MIN_MATCH;
+                op = sequence(src, anchor, ip - anchor, ip - ref, matchLength, dst, op);
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+        return literals(src, anchor, length, dst, op);
+    }
+
+    /**
+     * Decompresses one block into {@code dst[0, dst.length)}.
+     *
+     * @return the decompressed length
+     */
+    static int decompress(byte[] src, int length, byte[] dst) {
+        int ip = 0;
+        int op = 0;
+        while (ip < length) {
+            int token = src[ip++] & 0xFF;
+            int literals = token >>> 4;
+            if (literals == 15) {
+                int b;
+                do {
+                    b = src[ip++] & 0xFF;
+                    literals += b;
+                } while (b == 255);
+            }
+            System.arraycopy(src, ip, dst, op, literals);
+            ip += literals;
+            op += literals;
+            if (ip >= length) {
+                break;
+            }
+            int offset = (src[ip] & 0xFF) | (src[ip + 1] & 0xFF) << 8;
+            ip += 2;
+            if (offset == 0 || offset > op) {
+                throw new IllegalArgumentException("corrupt LZ4 block: offset " + offset + " at " + op);
+            }
+            int matchLength = token & 15;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    b = src[ip++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            if (offset >= matchLength) {
+                System.arraycopy(dst, op - offset, dst, op, matchLength);
+            } else {
+                // byte by byte: the match overlaps what it copies
+                for (int i = 0; i < matchLength; i++) {
+                    dst[op + i] = dst[op - offset + i];
+                }
+            }
+            op += matchLength;
+        }
+        return op;
+    }
+
+    static int readInt(byte[] bytes, int offset) {
+        return (int) INT.get(bytes, offset);
+    }
+
+    static void writeInt(byte[] bytes, int offset, int value) {
+        INT.set(bytes, offset, value);
+    }
+
+    /**
+     * Common length of {@code src[ref...]} and {@code src[ip...]} before {@code limit}, eight
+     * bytes at a time.
+     */
+    private static int matchLength(byte[] src, int ref, int ip, int limit) {
+        int start = ip;
+        while (ip + Long.BYTES <= limit) {
+            long diff = (long) LONG.get(src, ref) ^ (long) LONG.get(src, ip);
+            if (diff != 0) {
+                return ip - start + (Long.numberOfTrailingZeros(diff) >>> 3);
+            }
+            ip += Long.BYTES;
+            ref += Long.BYTES;
+        }
+        while (ip < limit && src[ref] == src[ip]) {
+            ip++;
+            ref++;
+        }
+        return ip - start;
+    }
+
+    private static int sequence(byte[] src, int from, int literals, int offset, int matchLength, byte[] dst, int op) {
+        int token = op++;
+        int extra = matchLength - MIN_MATCH;
+        op = length(literals, dst, op);
+        System.arraycopy(src, from, dst, op, literals);
+        op += literals;
+        dst[op++] = (byte) offset;
+        dst[op++] = (byte) (offset >>> 8);
+        op = length(extra, dst, op);
+        dst[token] = (byte) (Math.min(literals, 15) << 4 | Math.min(extra, 15));
+        return op;
+    }
+
+    private static int literals(byte[] src, int from, int to, byte[] dst, int op) {
+        int literals = to - from;
+        dst[op++] = (byte) (Math.min(literals, 15) << 4);
+        op = length(literals, dst, op);
+        System.arraycopy(src, from, dst, op, literals);
+        return op + literals;
+    }
+
+    // the bytes beyond the 15 that fit in the token
+    private static int length(int length, byte[] dst, int op) {
+        if (length >= 15) {
+            int rest = length - 15;
+            for (; rest >= 255; rest -= 255) {
+                dst[op++] = (byte) 255;
+            }
+            dst[op++] = (byte) rest;
+        }
+        return op;
+    }
+}
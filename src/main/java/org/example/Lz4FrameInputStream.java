@@ -0,0 +1,168 @@
+package org.example;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads LZ4 frames with independent blocks of up to 4 MB, verifying the header and the content
+ * checksum when present. Concatenated frames are read as one stream.
+ */
+public final class Lz4FrameInputStream extends InputStream {
+
+    private final InputStream in;
+    private final XxHash32 checksum = new XxHash32(0);
+    private byte[] compressed = new byte[0];
+    private byte[] block = new byte[0];
+    private int position;
+    private int limit;
+    private boolean contentChecksum;
+    private boolean blockChecksum;
+    private boolean inFrame;
+    private boolean eof;
+
+    public Lz4FrameInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        while (position == limit) {
+            if (!nextBlock()) {
+                return -1;
+            }
+        }
+        int n = Math.min(count, limit - position);
+        System.arraycopy(block, position, bytes, offset, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (!inFrame && !readHeader()) {
+            eof = true;
+            return false;
+        }
+        int size = readInt();
+        if (size == 0) {
+            if (contentChecksum && readInt() != checksum.digest()) {
+                throw new IOException("LZ4 content checksum mismatch");
+            }
+            inFrame = false;
+            position = limit = 0;
+            return true;
+        }
+        boolean stored = (size & Lz4FrameOutputStream.UNCOMPRESSED) != 0;
+        size &= ~Lz4FrameOutputStream.UNCOMPRESSED;
+        if (size > block.length) {
+            throw new IOException("LZ4 block of " + size + " bytes exceeds the frame's block size");
+        }
+        if (stored) {
+            readFully(block, size);
+            limit = size;
+        } else {
+            readFully(compressed, size);
+            try {
+                limit = Lz4.decompress(compressed, size, block);
+            } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("corrupt LZ4 block", e);
+            }
+        }
+        if (blockChecksum) {
+            readInt();
+        }
+        if (contentChecksum) {
+            checksum.update(block, 0, limit);
+        }
+        position = 0;
+        return true;
+    }
+
+    /**
+     * @return {@code false} at the end of input
+     */
+    private boolean readHeader() throws IOException {
+        byte[] header = new byte[7];
+        int first = in.readNBytes(header, 0, 4);
+        if (first == 0) {
+            return false;
+        }
+        if (first < 4 || Lz4.readInt(header, 0) != Lz4FrameOutputStream.MAGIC) {
+            throw new IOException("not an LZ4 frame");
+        }
+        readFully(header, 4, 2);
+        int flags = header[4] & 0xFF;
+        if ((flags & 0xC0) != 0x40) {
+            throw new IOException("unsupported LZ4 frame version");
+        }
+        if ((flags & 0x20) == 0) {
+            throw new IOException("linked LZ4 blocks are not supported");
+        }
+        if ((flags & 0x01) != 0) {
+            throw new IOException("LZ4 dictionaries are not supported");
+        }
+        int descriptorLength = 2;
+        if ((flags & 0x08) != 0) {
+            byte[] withSize = new byte[14];
+            System.arraycopy(header, 0, withSize, 0, 6);
+            readFully(withSize, 6, 8);
+            header = withSize;
+            descriptorLength += 8;
+        }
+        int check = in.read();
+        if (check != (XxHash32.hash(header, 4, descriptorLength, 0) >>> 8 & 0xFF)) {
+            throw new IOException("LZ4 frame header checksum mismatch");
+        }
+        int blockSize = 1 << (8 + 2 * ((header[5] >>> 4) & 7));
+        if (blockSize < 64 * 1024) {
+            throw new IOException("invalid LZ4 block size");
+        }
+        if (block.length != blockSize) {
+            block = new byte[blockSize];
+            compressed = new byte[blockSize];
+        }
+        blockChecksum = (flags & 0x10) != 0;
+        contentChecksum = (flags & 0x04) != 0;
+        checksum.reset();
+        inFrame = true;
+        return true;
+    }
+
+    private int readInt() throws IOException {
+        byte[] bytes = new byte[4];
+        readFully(bytes, 0, 4);
+        return Lz4.readInt(bytes, 0);
+    }
+
+    private void readFully(byte[] bytes, int length) throws IOException {
+        readFully(bytes, 0, length);
+    }
+
+    private void readFully(byte[] bytes, int offset, int length) throws IOException {
+        if (in.readNBytes(bytes, offset, length) < length) {
+            throw new EOFException("truncated LZ4 frame");
+        }
+    }
+}
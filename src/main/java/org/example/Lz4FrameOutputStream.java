@@ -0,0 +1,110 @@
+package org.example;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the LZ4 frame format with independent 64 KB blocks and a content checksum, readable by
+ * the {@code lz4} command line tool and {@link Lz4FrameInputStream}. Blocks that do not shrink
+ * are stored as they are.
+ */
+public final class Lz4FrameOutputStream extends FilterOutputStream {
+
+    static final int MAGIC = 0x184D2204;
+    static final int BLOCK_SIZE = 64 * 1024;
+    // version 01, independent blocks, content checksum
+    static final int FLAGS = 0x40 | 0x20 | 0x04;
+    // 64 KB maximum block size
+    static final int BLOCK_DESCRIPTOR = 4 << 4;
+    static final int UNCOMPRESSED = 0x80000000;
+
+    private final Lz4 lz4;
+    private final XxHash32 checksum = new XxHash32(0);
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private final byte[] compressed = new byte[Lz4.maxCompressedLength(BLOCK_SIZE)];
+    private final byte[] blockSize = new byte[4];
+    private int length;
+    private boolean finished;
+
+    public Lz4FrameOutputStream(OutputStream out) throws IOException {
+        this(out, Lz4.DEFAULT_LEVEL);
+    }
+
+    /**
+     * @param level 1 (fastest) to 9 (smallest)
+     */
+    public Lz4FrameOutputStream(OutputStream out, int level) throws IOException {
+        super(out);
+        this.lz4 = new Lz4(level);
+        byte[] header = new byte[7];
+        Lz4.writeInt(header, 0, MAGIC);
+        header[4] = (byte) FLAGS;
+        header[5] = (byte) BLOCK_DESCRIPTOR;
+        header[6] = (byte) (XxHash32.hash(header, 4, 2, 0) >>> 8);
+        out.write(header);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (length == BLOCK_SIZE) {
+            flushBlock();
+        }
+        block[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int count) throws IOException {
+        while (count > 0) {
+            if (length == BLOCK_SIZE) {
+                flushBlock();
+            }
+            int n = Math.min(count, BLOCK_SIZE - length);
+            System.arraycopy(bytes, offset, block, length, n);
+            length += n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * Writes the last block, the end mark and the checksum, leaving the target open.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        flushBlock();
+        byte[] trailer = new byte[8];
+        Lz4.writeInt(trailer, 4, checksum.digest());
+        out.write(trailer);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (length == 0) {
+            return;
+        }
+        checksum.update(block, 0, length);
+        int size = lz4.compress(block, length, compressed);
+        if (size < length) {
+            Lz4.writeInt(blockSize, 0, size);
+            out.write(blockSize);
+            out.write(compressed, 0, size);
+        } else {
+            Lz4.writeInt(blockSize, 0, length | UNCOMPRESSED);
+            out.write(blockSize);
+            out.write(block, 0, length);
+        }
+        length = 0;
+    }
+}
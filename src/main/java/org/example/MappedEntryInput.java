@@ -0,0 +1,59 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Hands out a source as read-only {@link java.nio.MappedByteBuffer} windows. The deflater reads
+ * the page cache directly: no copy into the heap and no read syscall per buffer.
+ * <p>
+ * Windows are unmapped when they are garbage collected; keep {@code window} large enough that
+ * a multi-GB source needs only a few of them.
+ * <p>
+ * The source size is checked again before every window, so a source truncated while it is read
+ * fails with an {@link IOException}. A truncation within the window being read can still fault.
+ */
+final class MappedEntryInput implements EntryInput {
+
+    static final int DEFAULT_WINDOW = 32 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int window;
+    private long position;
+
+    MappedEntryInput(FileChannel channel, int window) throws IOException {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be positive, was " + window);
+        }
+        this.channel = channel;
+        this.size = channel.size();
+        this.window = window;
+    }
+
+    @Override
+    public ByteBuffer next() throws IOException {
+        if (position >= size) {
+            return null;
+        }
+        // touching a mapping past the end of a truncated file faults instead of failing a read
+        long current = channel.size();
+        if (current < size) {
+            throw new IOException("source shrank while reading, expected " + size + " bytes but has " + current);
+        }
+        long length = Math.min(window, size - position);
+        ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        position += length;
+        return mapped;
+    }
+
+    @Override
+    public void release(ByteBuffer chunk) {
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Counts the bytes written to the target and the time spent in its {@code write}, so a slow
+ * output socket shows up as write time instead of compress time. File bodies go through
+ * {@link #transferFrom} instead, which hands the target itself to {@link FileChannel#transferTo}
+ * so the kernel can still copy them.
+ */
+final class MeteredChannel implements WritableByteChannel {
+
+    private final WritableByteChannel target;
+    private long bytes;
+    private long nanos;
+
+    MeteredChannel(WritableByteChannel target) {
+        this.target = target;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        long start = System.nanoTime();
+        try {
+            int written = target.write(src);
+            bytes += written;
+            return written;
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * {@link FileChannel#transferTo} into the target, timed and counted like a write.
+     */
+    long transferFrom(FileChannel src, long position, long count) throws IOException {
+        long start = System.nanoTime();
+        try {
+            long transferred = src.transferTo(position, count, target);
+            bytes += transferred;
+            return transferred;
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    long nanos() {
+        return nanos;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return target.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        target.close();
+    }
+}
@@ -0,0 +1,216 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * pigz-style DEFLATE of a single entry on several cores. The source is cut into chunks that are
+ * compressed independently, each primed with the previous 32 KB as dictionary and ended with a
+ * sync flush, so the concatenated outputs form one valid deflate stream. Chunk crcs are merged
+ * with {@link Crc32s#combine}. At most {@code 2 * parallelism} chunks are in flight, and their
+ * buffers come from fixed pools.
+ */
+final class ParallelDeflater implements AutoCloseable {
+
+    static final int DEFAULT_CHUNK_SIZE = 128 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private final int chunkSize;
+    private final int window;
+    private final ExecutorService executor;
+    private final BlockingQueue<Deflater> deflaters;
+    private final List<Deflater> allDeflaters = new ArrayList<>();
+    private final BufferPool inputs;
+    private final BufferPool outputs;
+
+    ParallelDeflater(int parallelism, int chunkSize, int level) {
+        this(parallelism, chunkSize, level, null);
+    }
+
+    ParallelDeflater(int parallelism, int chunkSize, int level, DirectBuffers buffers) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("parallelism and chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.window = parallelism * 2;
+        this.executor = new ForkJoinPool(parallelism);
+        this.deflaters = new ArrayBlockingQueue<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            Deflater deflater = new Deflater(level, true);
+            deflaters.add(deflater);
+            allDeflaters.add(deflater);
+        }
+        this.inputs = new BufferPool(window, inputSize(chunkSize), buffers);
+        this.outputs = new BufferPool(window, outputSize(chunkSize), buffers);
+    }
+
+    long footprint() {
+        return inputs.footprint() + outputs.footprint();
+    }
+
+    /**
+     * What an instance would hold, deflaters included, without creating one.
+     */
+    static long footprint(int parallelism, int chunkSize) {
+        long window = parallelism * 2L;
+        return window * (inputSize(chunkSize) + outputSize(chunkSize))
+                + parallelism * ZipStreamer.DEFLATER_FOOTPRINT;
+    }
+
+    private static int inputSize(int chunkSize) {
+        return DICTIONARY_SIZE + chunkSize;
+    }
+
+    // sync flush of incompressible data grows it by a few bytes per 16 KB stored block
+    private static int outputSize(int chunkSize) {
+        return chunkSize + (chunkSize >> 3) + 1024;
+    }
+
+    /**
+     * @param tee also receives the compressed body, if not {@code null}
+     */
+    EntryDeflater.Result deflate(FileDto file, FileChannel source, ZipChannelWriter writer, WritableByteChannel tee)
+            throws IOException {
+        long size = source.size();
+        long chunks = Math.max(1, (size + chunkSize - 1) / chunkSize);
+        Deque<Future<Chunk>> inFlight = new ArrayDeque<>(window);
+        long crc = 0;
+        long submitted = 0;
+        writer.putEntry(file.getName(), ZipChannelWriter.DEFLATED);
+        try {
+            while (submitted < chunks || !inFlight.isEmpty()) {
+                while (submitted < chunks && inFlight.size() < window) {
+                    long offset = submitted * chunkSize;
+                    int length = (int) Math.min(chunkSize, size - offset);
+                    boolean last = ++submitted == chunks;
+                    ByteBuffer input = inputs.acquire();
+                    ByteBuffer output = outputs.acquire();
+                    inFlight.add(executor.submit(() -> compress(source, offset, length, last, input, output)));
+                }
+                Chunk chunk = inFlight.removeFirst().get();
+                try {
+                    writer.write(chunk.output.flip());
+                    if (tee != null) {
+                        EntryDeflater.writeFully(tee, chunk.output.rewind());
+                    }
+                } finally {
+                    outputs.release(chunk.output);
+                }
+                crc = Crc32s.combine(crc, chunk.crc, chunk.length);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while deflating " + file.getName());
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } finally {
+            drain(inFlight);
+        }
+        writer.closeEntry(crc, size);
+        return new EntryDeflater.Result(crc, size);
+    }
+
+    private Chunk compress(FileChannel source, long offset, int length, boolean last,
+                           ByteBuffer input, ByteBuffer output) throws IOException, InterruptedException {
+        Deflater deflater = null;
+        try {
+            deflater = deflaters.take();
+            int dictionary = (int) Math.min(DICTIONARY_SIZE, offset);
+            readFully(source, input, offset - dictionary, dictionary + length);
+            deflater.reset();
+            if (dictionary > 0) {
+                input.limit(dictionary);
+                deflater.setDictionary(input);
+                input.limit(dictionary + length);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(input);
+            input.position(dictionary);
+
+            deflater.setInput(input);
+            output.clear();
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished() && output.hasRemaining()) {
+                    deflater.deflate(output);
+                }
+            } else {
+                deflater.deflate(output, Deflater.SYNC_FLUSH);
+            }
+            if (last ? !deflater.finished() : !output.hasRemaining() || !deflater.needsInput()) {
+                throw new IllegalStateException("deflate output exceeded its bound at offset " + offset);
+            }
+            return new Chunk(crc.getValue(), length, output);
+        } catch (RuntimeException | IOException | InterruptedException e) {
+            outputs.release(output);
+            throw e;
+        } finally {
+            if (deflater != null) {
+                deflaters.add(deflater);
+            }
+            inputs.release(input);
+        }
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position, int length)
+            throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) == -1) {
+                throw new IOException("source ended at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+    }
+
+    // on failure, wait for running chunks so their buffers go back to the pools
+    private void drain(Deque<Future<Chunk>> inFlight) {
+        for (Future<Chunk> future : inFlight) {
+            try {
+                outputs.release(future.get().output);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ignored) {
+                // already released by the failing task
+            }
+        }
+        inFlight.clear();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // chunks still running hold deflaters; wait before ending them
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            return;
+        }
+        allDeflaters.forEach(Deflater::end);
+        inputs.close();
+        outputs.close();
+    }
+
+    private record Chunk(long crc, int length, ByteBuffer output) {
+    }
+}
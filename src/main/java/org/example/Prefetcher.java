@@ -0,0 +1,233 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens and reads up to {@code depth} sources ahead of the writer, so slow storage overlaps
+ * with compression. Sources are started with {@link #submit} and handed out in the same order
+ * by {@link #take}; the caller keeps at most {@code depth} of them submitted and not yet closed.
+ * <p>
+ * The buffer budget is split evenly between the entries in flight. Each entry may hold at most
+ * its share, so a reader running ahead can never starve the entry the writer is waiting on.
+ */
+final class Prefetcher implements AutoCloseable {
+
+    private static final Object END = new Object();
+
+    private final int depth;
+    private final int buffersPerEntry;
+    private final BufferPool pool;
+    private final ExecutorService readers;
+    private final Deque<PrefetchedInput> ahead;
+
+    Prefetcher(int depth, long budget, int bufferSize) {
+        this(depth, budget, bufferSize, null);
+    }
+
+    Prefetcher(int depth, long budget, int bufferSize, DirectBuffers buffers) {
+        this(depth, budget, bufferSize, buffers, daemonThreads());
+    }
+
+    Prefetcher(int depth, long budget, int bufferSize, DirectBuffers buffers, ThreadFactory threadFactory) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be positive, was " + depth);
+        }
+        this.depth = depth;
+        this.buffersPerEntry = buffersPerEntry(depth, budget, bufferSize);
+        this.pool = new BufferPool(depth * buffersPerEntry, bufferSize, buffers);
+        this.readers = Executors.newFixedThreadPool(depth, threadFactory);
+        this.ahead = new ArrayDeque<>(depth);
+    }
+
+    long footprint() {
+        return pool.footprint();
+    }
+
+    /**
+     * What an instance would hold without creating one.
+     */
+    static long footprint(int depth, long budget, int bufferSize) {
+        return (long) depth * buffersPerEntry(depth, budget, bufferSize) * bufferSize;
+    }
+
+    private static int buffersPerEntry(int depth, long budget, int bufferSize) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE / depth, budget / depth / bufferSize));
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    int buffersInUse() {
+        return pool.bufferCount() - pool.available();
+    }
+
+    void submit(FileDto file) {
+        if (ahead.size() >= depth) {
+            throw new IllegalStateException("more than " + depth + " sources submitted ahead");
+        }
+        PrefetchedInput input = new PrefetchedInput(file);
+        ahead.add(input);
+        readers.execute(input::read);
+    }
+
+    /**
+     * Returns the input for {@code file}, which must be the oldest submitted one.
+     */
+    EntryInput take(FileDto file) {
+        PrefetchedInput next = ahead.pollFirst();
+        if (next == null || next.file != file) {
+            throw new IllegalStateException("entries must be taken in prefetch order, expected " + file.getName());
+        }
+        return next;
+    }
+
+    @Override
+    public void close() {
+        for (PrefetchedInput input : ahead) {
+            input.close();
+        }
+        ahead.clear();
+        readers.shutdownNow();
+        // buffers a reader still holds are not handed back
+        pool.close();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "zip-prefetch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class PrefetchedInput implements EntryInput {
+        private final FileDto file;
+        private final Semaphore permits = new Semaphore(buffersPerEntry);
+        private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean closed;
+        private boolean ended;
+        private Thread runner;
+
+        private PrefetchedInput(FileDto file) {
+            this.file = file;
+        }
+
+        private void read() {
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            ByteBuffer buffer = null;
+            try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+                boolean eof = false;
+                while (!eof && !closed) {
+                    permits.acquire();
+                    buffer = pool.acquire();
+                    while (buffer.hasRemaining() && !eof) {
+                        eof = channel.read(buffer) == -1;
+                    }
+                    if (buffer.position() == 0) {
+                        release(buffer);
+                    } else {
+                        chunks.add(buffer.flip());
+                    }
+                    buffer = null;
+                }
+                chunks.add(END);
+            } catch (IOException | RuntimeException e) {
+                chunks.add(e);
+            } catch (InterruptedException e) {
+                chunks.add(new InterruptedIOException("prefetch of " + file.getName() + " interrupted"));
+            } finally {
+                if (buffer != null) {
+                    release(buffer);
+                }
+                synchronized (this) {
+                    runner = null;
+                    // an interrupt from close() must not leak into the next task on this thread
+                    Thread.interrupted();
+                }
+                done.countDown();
+            }
+        }
+
+        @Override
+        public ByteBuffer next() throws IOException {
+            if (ended) {
+                return null;
+            }
+            Object chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for " + file.getName());
+            }
+            if (chunk == END) {
+                ended = true;
+                return null;
+            }
+            if (chunk instanceof IOException e) {
+                ended = true;
+                throw e;
+            }
+            if (chunk instanceof RuntimeException e) {
+                ended = true;
+                throw e;
+            }
+            return (ByteBuffer) chunk;
+        }
+
+        @Override
+        public void release(ByteBuffer chunk) {
+            pool.release(chunk);
+            permits.release();
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (this) {
+                if (runner != null) {
+                    runner.interrupt();
+                }
+            }
+            boolean interrupted = false;
+            while (done.getCount() > 0) {
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            for (Object chunk : chunks) {
+                if (chunk instanceof ByteBuffer buffer) {
+                    release(buffer);
+                }
+            }
+            chunks.clear();
+        }
+    }
+}
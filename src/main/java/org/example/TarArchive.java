@@ -0,0 +1,76 @@
+package org.example;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Streams {@link FileDto}s as a tar archive, compressed as a whole by {@code compression}.
+ * Unlike zip there is no per-entry compression or central directory, so entries are written
+ * strictly in order with constant memory, and the compressor sees across entries. Meant for
+ * machine-to-machine transfers where the receiver is known to read the format.
+ */
+@Getter
+@Builder
+public class TarArchive implements ArchiveFormat {
+
+    @Builder.Default
+    private final TarCompression compression = TarCompression.GZIP;
+    /**
+     * Per {@link TarCompression}; {@code -1} for the format's default.
+     */
+    @Builder.Default
+    private final int level = -1;
+    @Builder.Default
+    private final int bufferSize = ZipStreamer.DEFAULT_BUFFER_SIZE;
+
+    public static TarArchive of(TarCompression compression) {
+        return TarArchive.builder().compression(compression).build();
+    }
+
+    @Override
+    public String extension() {
+        return compression.extension();
+    }
+
+    @Override
+    public String contentType() {
+        return compression.contentType();
+    }
+
+    @Override
+    public void write(Iterator<FileDto> files, OutputStream out) throws IOException {
+        try (OutputStream target = compression.open(new Unclosed(out), level, bufferSize)) {
+            TarWriter tar = new TarWriter(target, bufferSize);
+            while (files.hasNext()) {
+                FileDto file = files.next();
+                tar.putFile(file.getName(), file.path());
+            }
+            tar.finish();
+        }
+        out.flush();
+    }
+
+    /**
+     * Keeps the caller's stream open when the compressor is closed.
+     */
+    private static final class Unclosed extends FilterOutputStream {
+        private Unclosed(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
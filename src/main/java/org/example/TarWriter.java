@@ -0,0 +1,152 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming POSIX tar (ustar) writer. Names that do not fit ustar's 100 ASCII bytes and
+ * sources of 8 GB or more get a PAX extended header first, so any modern tar reads them.
+ * Bodies are copied through one reused buffer.
+ */
+final class TarWriter {
+
+    static final int BLOCK = 512;
+    private static final long MAX_OCTAL_SIZE = 077777777777L;
+    private static final int NAME_LENGTH = 100;
+    private static final byte FILE = '0';
+    private static final byte PAX = 'x';
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final byte[] header = new byte[BLOCK];
+
+    TarWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    void putFile(String name, Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long mtime = Math.max(0, Files.getLastModifiedTime(source).to(TimeUnit.SECONDS));
+            putHeader(name, size, mtime);
+            ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+            long copied = 0;
+            while (copied < size) {
+                wrapped.clear().limit((int) Math.min(buffer.length, size - copied));
+                int n = channel.read(wrapped, copied);
+                if (n == -1) {
+                    throw new IOException(name + " shrank while archiving, expected " + size + " bytes");
+                }
+                out.write(buffer, 0, n);
+                copied += n;
+            }
+            pad(size);
+        }
+    }
+
+    /**
+     * Writes the two zero blocks that end an archive.
+     */
+    void finish() throws IOException {
+        Arrays.fill(header, (byte) 0);
+        out.write(header);
+        out.write(header);
+    }
+
+    private void putHeader(String name, long size, long mtime) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        boolean longName = nameBytes.length > NAME_LENGTH || !isAscii(nameBytes);
+        boolean largeSize = size > MAX_OCTAL_SIZE;
+        if (longName || largeSize) {
+            StringBuilder records = new StringBuilder();
+            if (longName) {
+                records.append(paxRecord("path", name));
+            }
+            if (largeSize) {
+                records.append(paxRecord("size", Long.toString(size)));
+            }
+            byte[] pax = records.toString().getBytes(StandardCharsets.UTF_8);
+            writeHeader(asciiName("PaxHeaders/" + name), pax.length, mtime, PAX);
+            out.write(pax);
+            pad(pax.length);
+        }
+        writeHeader(longName ? asciiName(name) : nameBytes, largeSize ? 0 : size, mtime, FILE);
+    }
+
+    private void writeHeader(byte[] name, long size, long mtime, byte type) throws IOException {
+        Arrays.fill(header, (byte) 0);
+        System.arraycopy(name, 0, header, 0, Math.min(name.length, NAME_LENGTH));
+        octal(100, 8, 0644);
+        octal(108, 8, 0);
+        octal(116, 8, 0);
+        octal(124, 12, size);
+        octal(136, 12, mtime);
+        header[156] = type;
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 8);
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xFF;
+        }
+        octal(148, 7, checksum);
+        out.write(header);
+    }
+
+    private void octal(int offset, int length, long value) {
+        String digits = Long.toOctalString(value);
+        int width = length - 1;
+        for (int i = 0; i < width; i++) {
+            int from = i - (width - digits.length());
+            header[offset + i] = (byte) (from < 0 ? '0' : digits.charAt(from));
+        }
+        header[offset + width] = 0;
+    }
+
+    private void pad(long size) throws IOException {
+        int rest = (int) (size % BLOCK);
+        if (rest != 0) {
+            Arrays.fill(header, (byte) 0);
+            out.write(header, 0, BLOCK - rest);
+        }
+    }
+
+    /**
+     * A PAX record, {@code "<length> <key>=<value>\n"}, where the length counts itself.
+     */
+    static String paxRecord(String key, String value) {
+        int body = (" " + key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8).length;
+        int length = body + Integer.toString(body).length();
+        if (Integer.toString(length).length() > Integer.toString(body).length()) {
+            length++;
+        }
+        return length + " " + key + "=" + value + "\n";
+    }
+
+    // what readers without PAX support fall back to
+    private static byte[] asciiName(String name) {
+        byte[] bytes = new byte[Math.min(name.length(), NAME_LENGTH)];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = name.charAt(i);
+            bytes[i] = (byte) (c < 0x80 ? c : '_');
+        }
+        return bytes;
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
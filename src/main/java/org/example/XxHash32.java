@@ -0,0 +1,95 @@
+package org.example;
+
+/**
+ * Streaming xxHash32, the checksum of the LZ4 frame format.
+ */
+final class XxHash32 {
+
+    private static final int P1 = 0x9E3779B1;
+    private static final int P2 = 0x85EBCA77;
+    private static final int P3 = 0xC2B2AE3D;
+    private static final int P4 = 0x27D4EB2F;
+    private static final int P5 = 0x165667B1;
+
+    private final int seed;
+    private final byte[] pending = new byte[16];
+    private int pendingLength;
+    private long length;
+    private int v1;
+    private int v2;
+    private int v3;
+    private int v4;
+
+    XxHash32(int seed) {
+        this.seed = seed;
+        reset();
+    }
+
+    static int hash(byte[] bytes, int offset, int length, int seed) {
+        XxHash32 hash = new XxHash32(seed);
+        hash.update(bytes, offset, length);
+        return hash.digest();
+    }
+
+    void reset() {
+        v1 = seed + P1 + P2;
+        v2 = seed + P2;
+        v3 = seed;
+        v4 = seed - P1;
+        pendingLength = 0;
+        length = 0;
+    }
+
+    void update(byte[] bytes, int offset, int count) {
+        length += count;
+        int end = offset + count;
+        if (pendingLength > 0) {
+            int n = Math.min(16 - pendingLength, count);
+            System.arraycopy(bytes, offset, pending, pendingLength, n);
+            pendingLength += n;
+            offset += n;
+            if (pendingLength < 16) {
+                return;
+            }
+            stripe(pending, 0);
+            pendingLength = 0;
+        }
+        for (; offset + 16 <= end; offset += 16) {
+            stripe(bytes, offset);
+        }
+        pendingLength = end - offset;
+        System.arraycopy(bytes, offset, pending, 0, pendingLength);
+    }
+
+    int digest() {
+        int h = length >= 16
+                ? Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12)
+                + Integer.rotateLeft(v4, 18)
+                : seed + P5;
+        h += (int) length;
+        int i = 0;
+        for (; i + 4 <= pendingLength; i += 4) {
+            h = Integer.rotateLeft(h + Lz4.readInt(pending, i) * P3, 17) * P4;
+        }
+        for (; i < pendingLength; i++) {
+            h = Integer.rotateLeft(h + (pending[i] & 0xFF) * P5, 11) * P1;
+        }
+        h ^= h >>> 15;
+        h *= P2;
+        h ^= h >>> 13;
+        h *= P3;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private void stripe(byte[] bytes, int offset) {
+        v1 = round(v1, Lz4.readInt(bytes, offset));
+        v2 = round(v2, Lz4.readInt(bytes, offset + 4));
+        v3 = round(v3, Lz4.readInt(bytes, offset + 8));
+        v4 = round(v4, Lz4.readInt(bytes, offset + 12));
+    }
+
+    private static int round(int acc, int input) {
+        return Integer.rotateLeft(acc + input * P2, 13) * P1;
+    }
+}
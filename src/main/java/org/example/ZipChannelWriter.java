@@ -0,0 +1,330 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Low level zip writer on top of a {@link WritableByteChannel}. Unlike
+ * {@link java.util.zip.ZipOutputStream} it leaves entry bodies to the caller, so they can be
+ * copied with {@link FileChannel#transferTo} or written from precompressed buffers. Headers,
+ * data descriptors, the central directory and the ZIP64 end records are written here.
+ */
+final class ZipChannelWriter {
+
+    static final int STORED = 0;
+    static final int DEFLATED = 8;
+
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIG = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int END_SIG = 0x06054b50;
+
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8 = 0x0800;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+
+    private final WritableByteChannel out;
+    private final int dosTime;
+    private ByteBuffer header = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+    private final CentralDirectory directory = new CentralDirectory();
+
+    private long position;
+    private OpenEntry current;
+    private long bodyStart;
+    // where the central directory starts once finishing has begun, -1 before
+    private long centralStart = -1;
+    private int nextRecord;
+    private boolean finished;
+
+    ZipChannelWriter(WritableByteChannel out) {
+        this(out, LocalDateTime.now());
+    }
+
+    ZipChannelWriter(WritableByteChannel out, LocalDateTime modifiedAt) {
+        this.out = out;
+        this.dosTime = dosTime(modifiedAt);
+    }
+
+    long position() {
+        return position;
+    }
+
+    /**
+     * Starts an entry whose crc and sizes are known up front. Used for STORED entries and for
+     * splicing already compressed bodies.
+     */
+    void putEntry(String name, int method, long crc, long compressedSize, long size) throws IOException {
+        startEntry(name, method, 0, crc, compressedSize, size);
+        boolean zip64 = compressedSize >= ZIP64_MAGIC || size >= ZIP64_MAGIC;
+        header.clear();
+        localHeader(current, zip64);
+        if (zip64) {
+            header.putShort((short) ZIP64_EXTRA_ID).putShort((short) 16).putLong(size).putLong(compressedSize);
+        }
+        flushHeader();
+        bodyStart = position;
+    }
+
+    /**
+     * Starts an entry whose crc and sizes follow the body in a data descriptor.
+     */
+    void putEntry(String name, int method) throws IOException {
+        startEntry(name, method, FLAG_DATA_DESCRIPTOR, 0, 0, 0);
+        header.clear();
+        localHeader(current, false);
+        flushHeader();
+        bodyStart = position;
+    }
+
+    void write(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            position += out.write(src);
+        }
+    }
+
+    void transferFrom(FileChannel src, long offset, long count) throws IOException {
+        long done = 0;
+        while (done < count) {
+            // a metered output must not hide the target from transferTo, or the kernel copy is lost
+            long n = out instanceof MeteredChannel metered
+                    ? metered.transferFrom(src, offset + done, count - done)
+                    : src.transferTo(offset + done, count - done, out);
+            if (n <= 0) {
+                throw new IOException("source ended " + (count - done) + " bytes early");
+            }
+            done += n;
+        }
+        position += done;
+    }
+
+    /**
+     * Accounts for {@code count} body bytes that are written elsewhere, e.g. when only the
+     * layout of an archive is computed.
+     */
+    void reserve(long count) {
+        requireEntry();
+        position += count;
+    }
+
+    /**
+     * Closes the current entry. For data descriptor entries the values are written after the
+     * body; for the others they are checked against what was announced in the local header.
+     */
+    void closeEntry(long crc, long size) throws IOException {
+        OpenEntry entry = requireEntry();
+        long compressedSize = position - bodyStart;
+        if ((entry.flags & FLAG_DATA_DESCRIPTOR) != 0) {
+            entry.crc = crc;
+            entry.compressedSize = compressedSize;
+            entry.size = size;
+            header.clear();
+            header.putInt(DATA_DESCRIPTOR_SIG).putInt((int) crc);
+            if (compressedSize >= ZIP64_MAGIC || size >= ZIP64_MAGIC) {
+                header.putLong(compressedSize).putLong(size);
+            } else {
+                header.putInt((int) compressedSize).putInt((int) size);
+            }
+            flushHeader();
+        } else if (entry.crc != crc || entry.compressedSize != compressedSize || entry.size != size) {
+            throw new IOException("entry " + new String(entry.name, StandardCharsets.UTF_8)
+                    + " does not match its local header");
+        }
+        directory.add(entry.name, entry.method, entry.flags, entry.crc, entry.compressedSize, entry.size, entry.offset);
+        current = null;
+    }
+
+    void closeEntry() throws IOException {
+        OpenEntry entry = requireEntry();
+        closeEntry(entry.crc, entry.size);
+    }
+
+    int entryCount() {
+        return directory.size();
+    }
+
+    /**
+     * Writes the central directory and end records. The channel is left open.
+     */
+    void finish() throws IOException {
+        while (!finishNext()) {
+            // one central record per call
+        }
+    }
+
+    /**
+     * Writes the next central directory record, or the end records once all are written, so a
+     * caller producing output on demand never buffers the whole directory at once. No entry can
+     * be started after the first call.
+     *
+     * @return {@code true} once the end records are written
+     */
+    boolean finishNext() throws IOException {
+        if (centralStart < 0) {
+            if (current != null) {
+                throw new IllegalStateException("entry still open");
+            }
+            centralStart = position;
+        } else if (finished) {
+            throw new IllegalStateException("archive already finished");
+        }
+        int count = directory.size();
+        if (nextRecord < count) {
+            header.clear();
+            centralHeader(nextRecord++);
+            flushHeader();
+            return false;
+        }
+        long centralSize = position - centralStart;
+        if (count >= ZIP64_MAGIC_COUNT || centralStart >= ZIP64_MAGIC || centralSize >= ZIP64_MAGIC) {
+            long zip64End = position;
+            header.clear();
+            header.putInt(ZIP64_END_SIG).putLong(44)
+                    .putShort((short) VERSION_ZIP64).putShort((short) VERSION_ZIP64)
+                    .putInt(0).putInt(0)
+                    .putLong(count).putLong(count)
+                    .putLong(centralSize).putLong(centralStart);
+            header.putInt(ZIP64_LOCATOR_SIG).putInt(0).putLong(zip64End).putInt(1);
+            flushHeader();
+        }
+        header.clear();
+        header.putInt(END_SIG).putShort((short) 0).putShort((short) 0)
+                .putShort((short) Math.min(count, ZIP64_MAGIC_COUNT))
+                .putShort((short) Math.min(count, ZIP64_MAGIC_COUNT))
+                .putInt((int) Math.min(centralSize, ZIP64_MAGIC))
+                .putInt((int) Math.min(centralStart, ZIP64_MAGIC))
+                .putShort((short) 0);
+        flushHeader();
+        finished = true;
+        return true;
+    }
+
+    private void startEntry(String name, int method, int flags, long crc, long compressedSize, long size) {
+        if (current != null) {
+            throw new IllegalStateException("previous entry not closed");
+        }
+        if (centralStart >= 0) {
+            throw new IllegalStateException("archive is being finished");
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("entry name too long: " + name);
+        }
+        current = new OpenEntry(nameBytes, method, flags | FLAG_UTF8, position);
+        current.crc = crc;
+        current.compressedSize = compressedSize;
+        current.size = size;
+    }
+
+    private OpenEntry requireEntry() {
+        if (current == null) {
+            throw new IllegalStateException("no open entry");
+        }
+        return current;
+    }
+
+    private void localHeader(OpenEntry entry, boolean zip64) {
+        ensureHeaderCapacity(30 + entry.name.length + 20);
+        header.putInt(LOCAL_HEADER_SIG)
+                .putShort((short) (zip64 ? VERSION_ZIP64 : VERSION))
+                .putShort((short) entry.flags)
+                .putShort((short) entry.method)
+                .putInt(dosTime)
+                .putInt((int) entry.crc)
+                .putInt((int) (zip64 ? ZIP64_MAGIC : entry.compressedSize))
+                .putInt((int) (zip64 ? ZIP64_MAGIC : entry.size))
+                .putShort((short) entry.name.length)
+                .putShort((short) (zip64 ? 20 : 0))
+                .put(entry.name);
+    }
+
+    private void centralHeader(int i) {
+        long size = directory.size(i);
+        long compressedSize = directory.compressedSize(i);
+        long offset = directory.offset(i);
+        int nameLength = directory.nameLength(i);
+        boolean size64 = size >= ZIP64_MAGIC;
+        boolean compressed64 = compressedSize >= ZIP64_MAGIC;
+        boolean offset64 = offset >= ZIP64_MAGIC;
+        int extra = (size64 ? 8 : 0) + (compressed64 ? 8 : 0) + (offset64 ? 8 : 0);
+        boolean zip64 = extra > 0;
+        ensureHeaderCapacity(46 + nameLength + 4 + extra);
+        header.putInt(CENTRAL_HEADER_SIG)
+                .putShort((short) (zip64 ? VERSION_ZIP64 : VERSION))
+                .putShort((short) (zip64 ? VERSION_ZIP64 : VERSION))
+                .putShort((short) directory.flags(i))
+                .putShort((short) directory.method(i))
+                .putInt(dosTime)
+                .putInt((int) directory.crc(i))
+                .putInt((int) (compressed64 ? ZIP64_MAGIC : compressedSize))
+                .putInt((int) (size64 ? ZIP64_MAGIC : size))
+                .putShort((short) nameLength)
+                .putShort((short) (zip64 ? extra + 4 : 0))
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putInt(0)
+                .putInt((int) (offset64 ? ZIP64_MAGIC : offset))
+                .put(directory.names(), directory.nameStart(i), nameLength);
+        if (zip64) {
+            header.putShort((short) ZIP64_EXTRA_ID).putShort((short) extra);
+            if (size64) {
+                header.putLong(size);
+            }
+            if (compressed64) {
+                header.putLong(compressedSize);
+            }
+            if (offset64) {
+                header.putLong(offset);
+            }
+        }
+    }
+
+    private void ensureHeaderCapacity(int bytes) {
+        if (header.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(header.position() + bytes).order(ByteOrder.LITTLE_ENDIAN);
+            header = larger.put(header.flip());
+        }
+    }
+
+    private void flushHeader() throws IOException {
+        header.flip();
+        write(header);
+    }
+
+    private static int dosTime(LocalDateTime time) {
+        int year = Math.max(time.getYear(), 1980);
+        return (year - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    /**
+     * The entry being written; it moves into the {@link CentralDirectory} once closed.
+     */
+    private static final class OpenEntry {
+        private final byte[] name;
+        private final int method;
+        private final int flags;
+        private final long offset;
+        private long crc;
+        private long compressedSize;
+        private long size;
+
+        private OpenEntry(byte[] name, int method, int flags, long offset) {
+            this.name = name;
+            this.method = method;
+            this.flags = flags;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Pull-based zip generation: every {@link #next()} does just enough work, one source read at a
+ * time, to hand out the next chunk of the archive. Nothing runs between calls, so a slow
+ * consumer costs no thread and no buffering beyond the chunk it asked for.
+ */
+final class ZipChunkProducer implements AutoCloseable {
+
+    private final Iterator<FileDto> files;
+    private final EntryMethod method;
+    private final BufferPool pool;
+    private final ByteBuffer input;
+    private final ByteBuffer output;
+    private final ChunkingChannel chunks;
+    private final ZipChannelWriter writer;
+    private final EntryDeflater deflater;
+
+    private FileChannel source;
+    private boolean stored;
+    private boolean finished;
+
+    ZipChunkProducer(Iterator<FileDto> files, EntryMethod method, int level, int chunkSize) throws IOException {
+        this.files = files;
+        this.method = method;
+        this.pool = new BufferPool(2, chunkSize, true);
+        this.input = ZipStreamer.acquire(pool);
+        this.output = ZipStreamer.acquire(pool);
+        this.chunks = new ChunkingChannel(chunkSize);
+        this.writer = new ZipChannelWriter(chunks);
+        this.deflater = new EntryDeflater(level, output);
+    }
+
+    /**
+     * @return the next chunk of the archive, owned by the caller, or {@code null} at the end
+     */
+    ByteBuffer next() throws IOException {
+        while (chunks.ready.isEmpty()) {
+            if (finished) {
+                return chunks.flushPartial();
+            }
+            step();
+        }
+        return chunks.ready.poll();
+    }
+
+    private void step() throws IOException {
+        if (source == null) {
+            if (!files.hasNext()) {
+                // one central record per step, so the directory is chunked as lazily as the bodies
+                finished = writer.finishNext();
+                return;
+            }
+            FileDto file = files.next();
+            source = FileChannel.open(file.path(), StandardOpenOption.READ);
+            stored = method.isStored(file);
+            if (stored) {
+                long size = source.size();
+                writer.putEntry(file.getName(), ZipChannelWriter.STORED, Crc32s.of(source, size, input), size, size);
+            } else {
+                deflater.begin(writer, file.getName());
+            }
+            return;
+        }
+        if (source.read(input.clear()) == -1) {
+            if (stored) {
+                writer.closeEntry();
+            } else {
+                deflater.finish();
+            }
+            closeSource();
+            return;
+        }
+        input.flip();
+        if (stored) {
+            writer.write(input);
+        } else {
+            deflater.update(input);
+        }
+    }
+
+    private void closeSource() throws IOException {
+        FileChannel channel = source;
+        source = null;
+        channel.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (source != null) {
+                closeSource();
+            }
+        } finally {
+            deflater.close();
+            pool.release(input);
+            pool.release(output);
+        }
+    }
+
+    /**
+     * Cuts whatever the writer produces into fresh chunks of {@code chunkSize} bytes.
+     */
+    private static final class ChunkingChannel implements WritableByteChannel {
+        private final int chunkSize;
+        private final Deque<ByteBuffer> ready = new ArrayDeque<>();
+        private ByteBuffer current;
+
+        private ChunkingChannel(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int written = src.remaining();
+            while (src.hasRemaining()) {
+                if (current == null) {
+                    current = ByteBuffer.allocate(chunkSize);
+                }
+                int n = Math.min(src.remaining(), current.remaining());
+                current.put(src.slice(src.position(), n));
+                src.position(src.position() + n);
+                if (!current.hasRemaining()) {
+                    ready.add(current.flip());
+                    current = null;
+                }
+            }
+            return written;
+        }
+
+        private ByteBuffer flushPartial() {
+            if (current == null || current.position() == 0) {
+                return null;
+            }
+            ByteBuffer last = current.flip();
+            current = null;
+            return last;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * One archive entry written by {@link ZipStreamer}; the event duration is the whole entry.
+ */
+@Name("org.example.ZipEntry")
+@Label("Zip Entry")
+@Category({"Application", "Zip"})
+@Description("An entry written into a zip archive, with its read, compress and write time")
+final class ZipEntryEvent extends jdk.jfr.Event {
+
+    @Label("Name")
+    String name;
+
+    @Label("Method")
+    String method;
+
+    @Label("Cached")
+    boolean cached;
+
+    @Label("Bytes In")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Bytes Out")
+    @DataAmount
+    long bytesOut;
+
+    @Label("Read Time")
+    @Timespan
+    long readNanos;
+
+    @Label("Compress Time")
+    @Timespan
+    long compressNanos;
+
+    @Label("Write Time")
+    @Timespan
+    long writeNanos;
+}
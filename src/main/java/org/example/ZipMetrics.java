@@ -0,0 +1,166 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms for {@link ZipStreamer} runs: per-entry read, compress and
+ * write time, bytes in and out, buffer-pool occupancy and the peak heap seen between entries.
+ * One instance can be shared by many streamers and threads; {@link #register} exposes it over
+ * JMX. Each entry is also reported as a {@code org.example.ZipEntry} JFR event whenever that
+ * event is enabled, with or without a ZipMetrics.
+ */
+public final class ZipMetrics implements ZipMetricsMXBean {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private final LatencyHistogram read = new LatencyHistogram();
+    private final LatencyHistogram compress = new LatencyHistogram();
+    private final LatencyHistogram write = new LatencyHistogram();
+    private final LatencyHistogram entry = new LatencyHistogram();
+    private final LongAdder archives = new LongAdder();
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder cachedEntries = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final AtomicInteger buffersInUse = new AtomicInteger();
+    private final AtomicInteger peakBuffersInUse = new AtomicInteger();
+    private final AtomicLong peakHeapUsed = new AtomicLong();
+
+    /**
+     * Registers under {@code org.example:type=ZipMetrics,name=<name>} on the platform MBean server.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("org.example:type=ZipMetrics,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    void recordEntry(long readNanos, long compressNanos, long writeNanos, long in, long out, boolean cached) {
+        read.record(readNanos);
+        compress.record(compressNanos);
+        write.record(writeNanos);
+        entry.record(readNanos + compressNanos + writeNanos);
+        entries.increment();
+        if (cached) {
+            cachedEntries.increment();
+        }
+        bytesIn.add(in);
+        bytesOut.add(out);
+    }
+
+    void recordArchive() {
+        archives.increment();
+    }
+
+    void sample(int inUse) {
+        buffersInUse.set(inUse);
+        peakBuffersInUse.accumulateAndGet(inUse, Math::max);
+        peakHeapUsed.accumulateAndGet(MEMORY.getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    public LatencyHistogram readNanos() {
+        return read;
+    }
+
+    public LatencyHistogram compressNanos() {
+        return compress;
+    }
+
+    public LatencyHistogram writeNanos() {
+        return write;
+    }
+
+    public LatencyHistogram entryNanos() {
+        return entry;
+    }
+
+    @Override
+    public long getArchives() {
+        return archives.sum();
+    }
+
+    @Override
+    public long getEntries() {
+        return entries.sum();
+    }
+
+    @Override
+    public long getCachedEntries() {
+        return cachedEntries.sum();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public double getCompressionRatio() {
+        long in = bytesIn.sum();
+        return in == 0 ? 0 : (double) bytesOut.sum() / in;
+    }
+
+    @Override
+    public LatencySnapshot getReadLatency() {
+        return LatencySnapshot.of(read);
+    }
+
+    @Override
+    public LatencySnapshot getCompressLatency() {
+        return LatencySnapshot.of(compress);
+    }
+
+    @Override
+    public LatencySnapshot getWriteLatency() {
+        return LatencySnapshot.of(write);
+    }
+
+    @Override
+    public LatencySnapshot getEntryLatency() {
+        return LatencySnapshot.of(entry);
+    }
+
+    @Override
+    public int getBuffersInUse() {
+        return buffersInUse.get();
+    }
+
+    @Override
+    public int getPeakBuffersInUse() {
+        return peakBuffersInUse.get();
+    }
+
+    @Override
+    public long getPeakHeapUsed() {
+        return peakHeapUsed.get();
+    }
+
+    @Override
+    public void reset() {
+        read.reset();
+        compress.reset();
+        write.reset();
+        entry.reset();
+        archives.reset();
+        entries.reset();
+        cachedEntries.reset();
+        bytesIn.reset();
+        bytesOut.reset();
+        buffersInUse.set(0);
+        peakBuffersInUse.set(0);
+        peakHeapUsed.set(0);
+    }
+}
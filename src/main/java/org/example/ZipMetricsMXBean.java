@@ -0,0 +1,42 @@
+package org.example;
+
+/**
+ * Management view of a {@link ZipMetrics}. Timings are per entry, as seen by the thread writing
+ * the archive.
+ */
+public interface ZipMetricsMXBean {
+
+    long getArchives();
+
+    long getEntries();
+
+    /**
+     * Entries whose compressed body was copied from an {@link EntryCache} instead of compressed.
+     */
+    long getCachedEntries();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    /**
+     * Bytes written per byte read; below 1 means the archive is smaller than its sources.
+     */
+    double getCompressionRatio();
+
+    LatencySnapshot getReadLatency();
+
+    LatencySnapshot getCompressLatency();
+
+    LatencySnapshot getWriteLatency();
+
+    LatencySnapshot getEntryLatency();
+
+    int getBuffersInUse();
+
+    int getPeakBuffersInUse();
+
+    long getPeakHeapUsed();
+
+    void reset();
+}
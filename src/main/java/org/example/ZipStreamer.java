@@ -0,0 +1,483 @@
+package org.example;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Writes {@link FileDto}s into a zip archive one entry at a time. Sources are copied through
+ * the buffers of a {@link BufferPool}, so peak heap depends on the pool, not on entry count
+ * or file size.
+ * <p>
+ * STORED entries are checksummed in a first pass and then copied with
+ * {@link FileChannel#transferTo}, which lets the kernel move the bytes when the target is a
+ * file or socket channel.
+ * <p>
+ * With {@code parallelism > 1} DEFLATED entries are compressed in chunks on that many threads by
+ * a {@link ParallelDeflater}; the archive stays a single ordered zip stream.
+ * <p>
+ * The sequential DEFLATED path maps sources of at least {@code mapThreshold} bytes in
+ * {@code mapWindow} sized windows and feeds them to the deflater as they are; smaller ones are
+ * read through a pooled buffer.
+ * <p>
+ * With {@code prefetchDepth > 0} it instead reads that many sources ahead
+ * through a {@link Prefetcher}, holding at most {@code prefetchBudget} bytes of read-ahead.
+ * <p>
+ * With a {@link EntryCache}, DEFLATED sources are hashed first; a cached body is spliced in as
+ * is and a missing one is recorded while it is compressed.
+ * <p>
+ * {@link Dedupe#REPLAY} compresses repeated content once per archive and copies the compressed
+ * body for later copies, leaving a standard archive. Compressed bodies are also written to a
+ * temporary spool of at most {@code replaySpool} bytes as they are produced; a source is only
+ * hashed when its size matches one compressed before, and then both are. With a configured
+ * {@link EntryCache} every source is hashed anyway, and repeats within the archive hit the cache.
+ * <p>
+ * With {@link ZipMetrics}, or while the {@code org.example.ZipEntry} JFR event is enabled, every
+ * entry is timed. Read time is spent waiting for source bytes and write time inside the output
+ * channel; the rest is counted as compress time. Timings are taken on the writing thread, so
+ * with {@code parallelism > 1} reads happen inside compression and with prefetching only the
+ * wait for read-ahead counts as read. Output is then written through a counting wrapper; STORED
+ * and cached bodies are still handed to {@link FileChannel#transferTo} with the real target, so
+ * metering keeps the kernel copy.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class ZipStreamer implements ArchiveFormat {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    // zlib deflate state for a 32 KB window at memLevel 8: (1 << 17) + (1 << 17) plus the struct
+    static final long DEFLATER_FOOTPRINT = 260 * 1024;
+
+    @Builder.Default
+    private final int bufferSize = DEFAULT_BUFFER_SIZE;
+    @Builder.Default
+    private final int bufferCount = 2;
+    @Builder.Default
+    private final int level = Deflater.DEFAULT_COMPRESSION;
+    @Builder.Default
+    private final EntryMethod method = EntryMethod.DEFLATED;
+    @Builder.Default
+    private final int parallelism = 1;
+    @Builder.Default
+    private final int chunkSize = ParallelDeflater.DEFAULT_CHUNK_SIZE;
+    @Builder.Default
+    private final int prefetchDepth = 0;
+    @Builder.Default
+    private final long prefetchBudget = 4L * 1024 * 1024;
+    @Builder.Default
+    private final long mapThreshold = 1024 * 1024;
+    @Builder.Default
+    private final int mapWindow = MappedEntryInput.DEFAULT_WINDOW;
+    private final EntryCache cache;
+    private final ZipMetrics metrics;
+    @Builder.Default
+    private final Dedupe dedupe = Dedupe.OFF;
+    @Builder.Default
+    private final long replaySpool = 1024L * 1024 * 1024;
+    // where jobs take their direct buffers from and hand them back; fresh ones per job if unset
+    private final DirectBuffers buffers;
+
+    public static ZipStreamer defaults() {
+        return ZipStreamer.builder().build();
+    }
+
+    /**
+     * Estimated bytes one {@link #write} call holds at most regardless of its entries: its
+     * pooled buffers, zlib state and the buffers of parallel deflate or prefetching. Mapped
+     * windows live in the page cache and are not counted.
+     */
+    public long footprint() {
+        long bytes = (long) bufferCount * bufferSize + DEFLATER_FOOTPRINT;
+        if (parallelism > 1) {
+            return bytes + ParallelDeflater.footprint(parallelism, chunkSize);
+        }
+        if (prefetchDepth > 0) {
+            return bytes + Prefetcher.footprint(prefetchDepth, prefetchBudget, bufferSize);
+        }
+        return bytes;
+    }
+
+    /**
+     * {@link #footprint()} plus the heap kept for each of {@code files} until the archive is
+     * finished: its central directory record and name, and with {@link Dedupe#REPLAY} its
+     * index slot, path, digest and spool bookkeeping. Arrays grow by doubling, so up to three
+     * times the used size is counted for them.
+     */
+    public long footprint(List<FileDto> files) {
+        long bytes = footprint();
+        boolean replay = dedupe == Dedupe.REPLAY && cache == null;
+        for (FileDto file : files) {
+            bytes += 3L * (CentralDirectory.BYTES_PER_ENTRY + utf8Length(file.getName()));
+            if (replay && !method.isStored(file)) {
+                bytes += 3L * (ContentIndex.BYTES_PER_SOURCE + utf8Length(file.getUrl()))
+                        + 2L * ContentIndex.DIGEST_SIZE + EntryCache.HEAP_PER_ENTRY;
+            }
+        }
+        return bytes;
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @Override
+    public String extension() {
+        return "zip";
+    }
+
+    @Override
+    public String contentType() {
+        return "application/zip";
+    }
+
+    /**
+     * Writes the archive and finishes it. {@code out} is flushed but left open for the caller.
+     */
+    @Override
+    public void write(List<FileDto> files, OutputStream out) throws IOException {
+        write(files.iterator(), out);
+    }
+
+    /**
+     * Writes entries as the stream yields them, so descriptors never need to exist all at once.
+     */
+    public void write(Stream<FileDto> files, OutputStream out) throws IOException {
+        write(files.iterator(), out);
+    }
+
+    @Override
+    public void write(Iterator<FileDto> files, OutputStream out) throws IOException {
+        write(files, out instanceof FileOutputStream fos ? fos.getChannel() : Channels.newChannel(out));
+        out.flush();
+    }
+
+    /**
+     * The same archive as a backpressure-aware publisher of {@code bufferSize} chunks. Parallel
+     * deflate and prefetching do not apply; production runs on {@code executor} only while the
+     * subscriber has outstanding demand.
+     */
+    public Flow.Publisher<ByteBuffer> publisher(List<FileDto> files, Executor executor) {
+        return new ArchivePublisher(files, method, level, bufferSize, executor);
+    }
+
+    public void write(List<FileDto> files, WritableByteChannel out) throws IOException {
+        write(files.iterator(), out);
+    }
+
+    public void write(Iterator<FileDto> files, WritableByteChannel out) throws IOException {
+        if (bufferCount < 2) {
+            throw new IllegalArgumentException("bufferCount must be at least 2, was " + bufferCount);
+        }
+        try (Job job = new Job(files, out)) {
+            FileDto file;
+            while ((file = job.next()) != null) {
+                job.write(file);
+            }
+            job.writer.finish();
+            if (metrics != null) {
+                metrics.recordArchive();
+            }
+        }
+    }
+
+    private static FileChannel open(FileDto file) throws IOException {
+        return FileChannel.open(file.path(), StandardOpenOption.READ);
+    }
+
+    private static String spoolKey(int source) {
+        return "source-" + source;
+    }
+
+    static ByteBuffer acquire(BufferPool pool) throws IOException {
+        try {
+            return pool.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a buffer");
+        }
+    }
+
+    /**
+     * Buffers, deflaters and readers of one {@link #write} call. Descriptors are pulled from
+     * the iterator only as far as the prefetch window reaches.
+     */
+    private final class Job implements AutoCloseable {
+        private final BufferPool pool = new BufferPool(bufferCount, bufferSize, buffers);
+        private final Iterator<FileDto> files;
+        private final Deque<FileDto> lookahead = new ArrayDeque<>();
+        private final ZipChannelWriter writer;
+        private final ByteBuffer input;
+        private final ByteBuffer output;
+        private final EntryDeflater deflater;
+        private final ParallelDeflater parallel;
+        private final Prefetcher prefetcher;
+        private final MeteredChannel meter;
+        // the configured cache, or the Dedupe.REPLAY spool once the first body is written to it
+        private EntryCache bodies;
+        private boolean temporaryBodies;
+        // sources spooled so far, for Dedupe.REPLAY without a configured cache
+        private final ContentIndex spooled;
+        private long readNanos;
+        private boolean cached;
+
+        private Job(Iterator<FileDto> files, WritableByteChannel out) throws IOException {
+            this.files = files;
+            this.meter = metrics != null || new ZipEntryEvent().isEnabled() ? new MeteredChannel(out) : null;
+            this.writer = new ZipChannelWriter(meter != null ? meter : out);
+            this.input = acquire(pool);
+            this.output = acquire(pool);
+            this.deflater = new EntryDeflater(level, output);
+            this.parallel = parallelism > 1 ? new ParallelDeflater(parallelism, chunkSize, level, buffers) : null;
+            this.prefetcher = parallel == null && prefetchDepth > 0
+                    ? new Prefetcher(prefetchDepth, prefetchBudget, bufferSize, buffers)
+                    : null;
+            this.bodies = cache;
+            this.spooled = dedupe == Dedupe.REPLAY && cache == null ? new ContentIndex() : null;
+        }
+
+        /**
+         * @return the next file to write, or {@code null} at the end
+         */
+        private FileDto next() {
+            int window = prefetcher != null ? prefetcher.depth() : 1;
+            while (lookahead.size() < window && files.hasNext()) {
+                FileDto file = files.next();
+                lookahead.add(file);
+                if (prefetcher != null && !method.isStored(file)) {
+                    prefetcher.submit(file);
+                }
+            }
+            return lookahead.poll();
+        }
+
+        private void write(FileDto file) throws IOException {
+            boolean stored = method.isStored(file);
+            if (meter == null) {
+                writeEntry(file, stored);
+                return;
+            }
+            ZipEntryEvent event = new ZipEntryEvent();
+            event.begin();
+            long start = System.nanoTime();
+            long writeStart = meter.nanos();
+            long outStart = writer.position();
+            readNanos = 0;
+            cached = false;
+            long in = writeEntry(file, stored);
+            long writeNanos = meter.nanos() - writeStart;
+            long compressNanos = Math.max(0, System.nanoTime() - start - readNanos - writeNanos);
+            long out = writer.position() - outStart;
+            if (metrics != null) {
+                metrics.recordEntry(readNanos, compressNanos, writeNanos, in, out, cached);
+                metrics.sample(pool.bufferCount() - pool.available()
+                        + (prefetcher != null ? prefetcher.buffersInUse() : 0));
+            }
+            if (event.shouldCommit()) {
+                event.name = file.getName();
+                event.method = stored ? "STORED" : "DEFLATED";
+                event.cached = cached;
+                event.bytesIn = in;
+                event.bytesOut = out;
+                event.readNanos = readNanos;
+                event.compressNanos = compressNanos;
+                event.writeNanos = writeNanos;
+                event.commit();
+            }
+        }
+
+        /**
+         * @return the size of the source
+         */
+        private long writeEntry(FileDto file, boolean stored) throws IOException {
+            if (stored) {
+                return writeStored(file);
+            }
+            return spooled != null ? writeReplayed(file) : writeDeflated(file);
+        }
+
+        /**
+         * Copies the spooled body of an earlier source with the same content, or compresses the
+         * source and spools its body for later copies. Only sources whose size was seen before
+         * are hashed, together with the earlier ones of that size.
+         *
+         * @return the size of the source
+         */
+        private long writeReplayed(FileDto file) throws IOException {
+            long size = Files.size(file.path());
+            int earlier = spooled.latest(size);
+            byte[] digest = null;
+            if (earlier != ContentIndex.NONE) {
+                digest = digest(file.getUrl(), size);
+                for (int i = earlier; digest != null && i != ContentIndex.NONE; i = spooled.previous(i)) {
+                    if (Arrays.equals(digest, digest(i, size))) {
+                        long spliced = spliceCached(file, spoolKey(i));
+                        if (spliced >= 0) {
+                            return spliced;
+                        }
+                    }
+                }
+            }
+            if (bodies == null) {
+                bodies = EntryCache.temporary(replaySpool);
+                temporaryBodies = true;
+            }
+            return deflate(file, spoolKey(spooled.add(size, file.getUrl(), digest)), size);
+        }
+
+        /**
+         * Hashed on the first size collision only. A source changed since it was compressed
+         * gets another digest and is simply not shared.
+         */
+        private byte[] digest(int i, long size) throws IOException {
+            if (!spooled.hashed(i)) {
+                spooled.digest(i, digest(spooled.path(i), size));
+            }
+            return spooled.digest(i);
+        }
+
+        /**
+         * @return the content digest, or {@code null} if the source no longer has {@code size} bytes
+         */
+        private byte[] digest(String url, long size) throws IOException {
+            long readStart = System.nanoTime();
+            try (FileChannel source = FileChannel.open(Path.of(url), StandardOpenOption.READ)) {
+                return source.size() == size ? EntryCache.digest(source, size, input) : null;
+            } finally {
+                readNanos += System.nanoTime() - readStart;
+            }
+        }
+
+        /**
+         * @return the size of the source
+         */
+        private long writeStored(FileDto file) throws IOException {
+            try (FileChannel source = open(file)) {
+                long size = source.size();
+                long readStart = System.nanoTime();
+                long crc = Crc32s.of(source, size, input);
+                readNanos += System.nanoTime() - readStart;
+                writer.putEntry(file.getName(), ZipChannelWriter.STORED, crc, size, size);
+                writer.transferFrom(source, 0, size);
+                writer.closeEntry();
+                return size;
+            }
+        }
+
+        /**
+         * @return the size of the source
+         */
+        private long writeDeflated(FileDto file) throws IOException {
+            if (cache == null) {
+                return deflate(file, null, -1);
+            }
+            long readStart = System.nanoTime();
+            long size;
+            String key;
+            try (FileChannel source = open(file)) {
+                size = source.size();
+                key = EntryCache.key(EntryCache.digest(source, size, input), level);
+            }
+            readNanos += System.nanoTime() - readStart;
+            long spliced = spliceCached(file, key);
+            return spliced >= 0 ? spliced : deflate(file, key, size);
+        }
+
+        /**
+         * Compresses the source, recording its body in {@link #bodies} under {@code key} unless
+         * that is {@code null}.
+         *
+         * @param size the size the body is recorded for; a source of another size is not
+         * @return the size of the source
+         */
+        private long deflate(FileDto file, String key, long size) throws IOException {
+            try (EntryCache.Pending pending = key != null ? bodies.begin(key) : null) {
+                WritableByteChannel tee = pending != null ? pending.channel() : null;
+                EntryDeflater.Result result = deflate(file, tee);
+                // a source that changed after hashing must not be cached under the old key
+                if (pending != null && result.size() == size) {
+                    pending.commit(result.crc(), result.size());
+                }
+                return result.size();
+            }
+        }
+
+        private EntryDeflater.Result deflate(FileDto file, WritableByteChannel tee) throws IOException {
+            if (parallel != null) {
+                try (FileChannel source = open(file)) {
+                    return parallel.deflate(file, source, writer, tee);
+                }
+            }
+            long readStart = System.nanoTime();
+            try (EntryInput source = prefetcher != null
+                    ? prefetcher.take(file)
+                    : EntryInput.open(open(file), input, mapThreshold, mapWindow)) {
+                deflater.begin(writer, file.getName(), tee);
+                ByteBuffer chunk;
+                while ((chunk = source.next()) != null) {
+                    readNanos += System.nanoTime() - readStart;
+                    try {
+                        deflater.update(chunk);
+                    } finally {
+                        source.release(chunk);
+                    }
+                    readStart = System.nanoTime();
+                }
+                readNanos += System.nanoTime() - readStart;
+                return deflater.finish();
+            }
+        }
+
+        /**
+         * @return the size of the cached source, or -1 when it is not cached
+         */
+        private long spliceCached(FileDto file, String key) throws IOException {
+            try (EntryCache.Hit hit = bodies.lookup(key)) {
+                if (hit == null) {
+                    return -1;
+                }
+                if (prefetcher != null) {
+                    prefetcher.take(file).close();
+                }
+                writer.putEntry(file.getName(), ZipChannelWriter.DEFLATED, hit.crc(), hit.compressedSize(), hit.size());
+                writer.transferFrom(hit.body(), EntryCache.HEADER_SIZE, hit.compressedSize());
+                writer.closeEntry();
+                cached = true;
+                return hit.size();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (deflater; parallel; prefetcher) {
+                pool.release(input);
+                pool.release(output);
+            } finally {
+                pool.close();
+                if (temporaryBodies) {
+                    bodies.delete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.stream;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heavy hitters in fixed memory: a count-min sketch of {@code depth} rows by {@code width}
+ * counters estimates every key's count (never under, and over by at most {@code e/width} of the
+ * total with probability {@code 1 - e^-depth}), and up to {@code k} candidate keys with the
+ * highest estimates are tracked beside it. Sketches of equal shape merge by adding counters and
+ * re-ranking the union of their candidates.
+ */
+public final class CountMinTopK {
+
+    public record Entry(String key, long estimate) {
+    }
+
+    private static final byte MAGIC = 'C';
+
+    private final int k;
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private final Map<String, Long> candidates = new HashMap<>();
+    private long total;
+
+    public CountMinTopK(int k) {
+        this(k, 2048, 5);
+    }
+
+    public CountMinTopK(int k, int width, int depth) {
+        if (k < 1 || width < 1 || depth < 1 || (long) width * depth > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("bad shape k=" + k + ", width=" + width + ", depth=" + depth);
+        }
+        this.k = k;
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[width * depth];
+    }
+
+    public void add(String key) {
+        add(key, 1);
+    }
+
+    public void add(String key, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative, was " + count);
+        }
+        long hash = Hashing.hash(key);
+        for (int row = 0; row < depth; row++) {
+            counters[index(hash, row)] += count;
+        }
+        total += count;
+        offer(key, estimate(hash));
+    }
+
+    public long estimate(String key) {
+        return estimate(Hashing.hash(key));
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Candidates by descending estimate.
+     */
+    public List<Entry> topK() {
+        List<Entry> top = new ArrayList<>(candidates.size());
+        candidates.forEach((key, estimate) -> top.add(new Entry(key, estimate)));
+        top.sort(Comparator.comparingLong(Entry::estimate).reversed().thenComparing(Entry::key));
+        return top;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the shapes differ
+     */
+    public CountMinTopK merge(CountMinTopK other) {
+        if (other.k != k || other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("cannot merge sketches of different shape");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+        List<String> keys = new ArrayList<>(candidates.keySet());
+        keys.addAll(other.candidates.keySet());
+        candidates.clear();
+        for (String key : keys) {
+            offer(key, estimate(key));
+        }
+        return this;
+    }
+
+    /**
+     * Magic, shape, total, counters, then the candidate keys as length-prefixed UTF-8.
+     */
+    public byte[] toBytes() {
+        List<byte[]> keys = new ArrayList<>(candidates.size());
+        int length = 1 + 12 + 8 + counters.length * Long.BYTES + 4;
+        for (String key : candidates.keySet()) {
+            byte[] utf8 = key.getBytes(StandardCharsets.UTF_8);
+            keys.add(utf8);
+            length += 4 + utf8.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(length).put(MAGIC).putInt(k).putInt(width).putInt(depth).putLong(total);
+        out.asLongBuffer().put(counters);
+        out.position(out.position() + counters.length * Long.BYTES).putInt(keys.size());
+        for (byte[] key : keys) {
+            out.putInt(key.length).put(key);
+        }
+        return out.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} is not a serialized CountMinTopK
+     */
+    public static CountMinTopK fromBytes(byte[] bytes) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (in.get() != MAGIC) {
+                throw new IllegalArgumentException("not a count-min sketch");
+            }
+            int k = in.getInt();
+            int width = in.getInt();
+            int depth = in.getInt();
+            if ((long) width * depth * Long.BYTES > in.remaining()) {
+                throw new IllegalArgumentException("truncated count-min sketch");
+            }
+            CountMinTopK sketch = new CountMinTopK(k, width, depth);
+            sketch.total = in.getLong();
+            in.asLongBuffer().get(sketch.counters);
+            in.position(in.position() + sketch.counters.length * Long.BYTES);
+            int keys = in.getInt();
+            for (int i = 0; i < keys; i++) {
+                byte[] key = new byte[in.getInt()];
+                in.get(key);
+                String text = new String(key, StandardCharsets.UTF_8);
+                sketch.offer(text, sketch.estimate(text));
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("trailing bytes after count-min sketch");
+            }
+            return sketch;
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("truncated count-min sketch", e);
+        }
+    }
+
+    private void offer(String key, long estimate) {
+        if (candidates.containsKey(key) || candidates.size() < k) {
+            candidates.put(key, estimate);
+            return;
+        }
+        String smallest = null;
+        long smallestEstimate = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (candidate.getValue() < smallestEstimate) {
+                smallest = candidate.getKey();
+                smallestEstimate = candidate.getValue();
+            }
+        }
+        if (estimate > smallestEstimate) {
+            candidates.remove(smallest);
+            candidates.put(key, estimate);
+        }
+    }
+
+    private long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+}
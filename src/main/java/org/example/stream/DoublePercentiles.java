@@ -0,0 +1,56 @@
+package org.example.stream;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Double counterpart of {@link Percentiles}.
+ */
+public final class DoublePercentiles implements DoubleConsumer {
+
+    private double[] values = new double[16];
+    private int size;
+    private boolean sorted = true;
+
+    @Override
+    public void accept(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+        sorted = false;
+    }
+
+    public DoublePercentiles combine(DoublePercentiles other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+        sorted = false;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double percentile(double p) {
+        if (p < 0 || p > 100) {
+            throw new IllegalArgumentException("percentile must be in [0, 100]: " + p);
+        }
+        if (size == 0) {
+            throw new IllegalStateException("no values");
+        }
+        if (!sorted) {
+            Arrays.sort(values, 0, size);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(p / 100 * size);
+        return values[Math.max(rank, 1) - 1];
+    }
+
+    public double median() {
+        return percentile(50);
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.stream;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+
+/**
+ * Double counterpart of {@link IntStats}. The sum is Kahan-compensated, like
+ * {@link java.util.DoubleSummaryStatistics}.
+ */
+@Getter
+@ToString
+public final class DoubleStats implements DoubleConsumer {
+
+    private long count;
+    @Getter(AccessLevel.NONE)
+    private double sum;
+    @Getter(AccessLevel.NONE)
+    private double compensation;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    @Getter(AccessLevel.NONE)
+    private double mean;
+    @Getter(AccessLevel.NONE)
+    private double m2;
+
+    public static DoubleStats of(DoubleStream values) {
+        return values.collect(DoubleStats::new, DoubleStats::accept, DoubleStats::combine);
+    }
+
+    @Override
+    public void accept(double value) {
+        count++;
+        add(value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public DoubleStats combine(DoubleStats other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            sum = other.sum;
+            compensation = other.compensation;
+            min = other.min;
+            max = other.max;
+            mean = other.mean;
+            m2 = other.m2;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        add(other.sum);
+        add(-other.compensation);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public double getSum() {
+        return sum - compensation;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0 : getSum() / count;
+    }
+
+    public double getVariance() {
+        return count < 2 ? 0 : m2 / count;
+    }
+
+    public double getSampleVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    private void add(double value) {
+        double corrected = value - compensation;
+        double next = sum + corrected;
+        compensation = (next - sum) - corrected;
+        sum = next;
+    }
+}
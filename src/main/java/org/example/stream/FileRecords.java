@@ -0,0 +1,80 @@
+package org.example.stream;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the records of a file straight from memory-mapped windows, so a multi-GB file can be
+ * reduced or collected, in parallel, without loading it into a {@code List}. Splits halve the
+ * remaining bytes and move the cut to the next record boundary, giving balanced chunks down to
+ * {@code minSplit} bytes.
+ * <pre>
+ * try (Stream&lt;Product&gt; products = FileRecords.defaults().lines(path, Product.CSV)) {
+ *     IntStats stats = products.parallel().collect(PrimitiveCollectors.intStats(Product::price));
+ * }
+ * </pre>
+ * Close the stream to close the file. I/O errors surface as {@link UncheckedIOException}.
+ */
+@Getter
+@Builder
+public class FileRecords {
+
+    @Builder.Default
+    private final int window = 64 * 1024 * 1024;
+    @Builder.Default
+    private final long minSplit = 1024 * 1024;
+
+    public static FileRecords defaults() {
+        return FileRecords.builder().build();
+    }
+
+    /**
+     * Records separated by {@code \n}; a trailing {@code \r} is dropped and blank lines are
+     * skipped. A line must fit in one {@code window}.
+     */
+    public <T> Stream<T> lines(Path path, RecordParser<? extends T> parser) throws IOException {
+        return stream(path, 0, parser);
+    }
+
+    /**
+     * Records of exactly {@code width} bytes with no separator; the stream is SIZED.
+     *
+     * @throws IOException if the file size is not a multiple of {@code width}
+     */
+    public <T> Stream<T> fixedWidth(Path path, int width, RecordParser<? extends T> parser) throws IOException {
+        if (width < 1 || width > window) {
+            throw new IllegalArgumentException("width must be in [1, " + window + "], was " + width);
+        }
+        return stream(path, width, parser);
+    }
+
+    private <T> Stream<T> stream(Path path, int width, RecordParser<? extends T> parser) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (width > 0 && size % width != 0) {
+                throw new IOException(path + " is " + size + " bytes, not a multiple of the record width " + width);
+            }
+            MappedRecordSpliterator<T> spliterator = new MappedRecordSpliterator<>(
+                    channel, 0, size, width, window, Math.max(minSplit, Math.max(width, 1)), parser);
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.stream;
+
+/**
+ * 64-bit hashes for the sketches: FNV-1a over the chars, finished with the MurmurHash3 fmix64
+ * avalanche so every output bit depends on every input bit. Stable across JVMs, which a sketch
+ * serialized on one node and merged on another relies on.
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    static long hash(CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    static long hash(long value) {
+        return mix(value ^ 0x9E3779B97F4A7C15L);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
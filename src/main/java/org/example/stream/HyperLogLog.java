@@ -0,0 +1,116 @@
+package org.example.stream;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Distinct-count estimate in {@code 2^precision} bytes, with a standard error of about
+ * {@code 1.04 / sqrt(2^precision)} (1.6% at the default 12). Sketches of equal precision merge
+ * by taking the register-wise maximum, so partial sketches from threads or nodes combine into
+ * exactly the sketch of the union.
+ */
+public final class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12;
+
+    private static final byte MAGIC = 'H';
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be in [4, 18], was " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public void add(CharSequence value) {
+        addHash(Hashing.hash(value));
+    }
+
+    public void add(long value) {
+        addHash(Hashing.hash(value));
+    }
+
+    private void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // the guard bit caps the rank when the remaining bits are all zero
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the precisions differ
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("cannot merge precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+        return this;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(2 + registers.length).put(MAGIC).put((byte) precision).put(registers).array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} is not a serialized HyperLogLog
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (in.get() != MAGIC) {
+                throw new IllegalArgumentException("not a HyperLogLog sketch");
+            }
+            HyperLogLog sketch = new HyperLogLog(in.get());
+            in.get(sketch.registers);
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("trailing bytes after HyperLogLog sketch");
+            }
+            return sketch;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("truncated HyperLogLog sketch", e);
+        }
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.stream;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable column of ints in direct buffers, outside the Java heap. Values live in chunks of
+ * {@link #CHUNK_SIZE}; a full chunk is never copied, so growing costs one new chunk instead of
+ * holding the old and a doubled buffer together. Only the last chunk may be shorter: it is
+ * sized by the expected size and doubles up to a full chunk when that was too low.
+ */
+final class IntColumn {
+
+    static final int CHUNK_SHIFT = 20;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int MAX_SIZE = Integer.MAX_VALUE;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MIN_CHUNK = 16;
+
+    private final int expected;
+    private IntBuffer[] chunks = new IntBuffer[4];
+    private int chunkCount;
+    private long capacity;
+    private int size;
+
+    /**
+     * @param expected values expected, so the chunks match them without copying
+     */
+    IntColumn(int expected) {
+        this.expected = Math.max(expected, MIN_CHUNK);
+    }
+
+    void add(int value) {
+        if (size == capacity) {
+            grow();
+        }
+        chunks[size >>> CHUNK_SHIFT].put(size & CHUNK_MASK, value);
+        size++;
+    }
+
+    int get(int index) {
+        return chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Read-only views of the chunks holding values, each positioned at 0 with its count as
+     * limit. Value {@code i} is at {@code i & (CHUNK_SIZE - 1)} of chunk {@code i >>> CHUNK_SHIFT}.
+     */
+    IntBuffer[] values() {
+        int count = (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+        IntBuffer[] values = new IntBuffer[count];
+        for (int c = 0; c < count; c++) {
+            int length = c < count - 1 ? CHUNK_SIZE : size - (c << CHUNK_SHIFT);
+            values[c] = chunks[c].asReadOnlyBuffer().clear().limit(length);
+        }
+        return values;
+    }
+
+    private void grow() {
+        if (size == MAX_SIZE) {
+            throw new IllegalStateException("column is full at " + MAX_SIZE + " values");
+        }
+        int last = chunkCount - 1;
+        if (last >= 0 && chunks[last].capacity() < CHUNK_SIZE) {
+            // the expected size was too low: the short last chunk doubles, at most to a full one
+            IntBuffer grown = allocate(Math.min(CHUNK_SIZE, chunks[last].capacity() * 2));
+            grown.put(chunks[last].duplicate().clear()).clear();
+            capacity += grown.capacity() - chunks[last].capacity();
+            chunks[last] = grown;
+            return;
+        }
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        long remaining = expected - capacity;
+        chunks[chunkCount] = allocate((int) Math.max(MIN_CHUNK, Math.min(CHUNK_SIZE, remaining)));
+        capacity += chunks[chunkCount++].capacity();
+    }
+
+    private static IntBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.stream;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * {@code groupingBy} for int (or char) keys. The accumulator appends each element and its key to
+ * two flat arrays, so nothing is allocated per element: no key object, no map entry and no
+ * per-group list. The finisher counting-sorts the elements into an {@link IntGroups}, indexing
+ * the keys with a plain array when their range is known and with an open-addressed map otherwise.
+ * <pre>
+ * IntGroups&lt;Product&gt; byPrefix = products.stream().collect(IntGrouping.byKey(p -&gt; p.id().charAt(0)));
+ * </pre>
+ */
+public final class IntGrouping {
+
+    private IntGrouping() {
+    }
+
+    /**
+     * Groups by any int key.
+     */
+    public static <T> Collector<T, ?, IntGroups<T>> byKey(ToIntFunction<? super T> key) {
+        return Collector.of(Buffer<T>::new, (b, t) -> b.add(key.applyAsInt(t), t), Buffer::append,
+                b -> b.group(0, -1));
+    }
+
+    /**
+     * Groups by a key known to fall in {@code [from, to)}, indexed by a dense array.
+     *
+     * @throws IllegalArgumentException if a key falls outside the range
+     */
+    public static <T> Collector<T, ?, IntGroups<T>> byKey(ToIntFunction<? super T> key, int from, int to) {
+        if (from >= to) {
+            throw new IllegalArgumentException("empty key range [" + from + ", " + to + ")");
+        }
+        return Collector.of(Buffer<T>::new, (b, t) -> b.add(key.applyAsInt(t), t), Buffer::append,
+                b -> b.group(from, to));
+    }
+
+    private static final class Buffer<T> {
+        private int[] keys = new int[16];
+        private Object[] elements = new Object[16];
+        private int size;
+
+        void add(int key, T element) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            keys[size] = key;
+            elements[size++] = element;
+        }
+
+        Buffer<T> append(Buffer<T> other) {
+            int total = size + other.size;
+            if (total > keys.length) {
+                keys = Arrays.copyOf(keys, total);
+                elements = Arrays.copyOf(elements, total);
+            }
+            System.arraycopy(other.keys, 0, keys, size, other.size);
+            System.arraycopy(other.elements, 0, elements, size, other.size);
+            size = total;
+            return this;
+        }
+
+        IntGroups<T> group(int from, int to) {
+            // keys are rewritten in place as group ordinals once the index is known
+            int[] ordinals = keys;
+            int[] distinct;
+            int[] dense = null;
+            IntIntHashMap index = null;
+            if (to > from) {
+                int[] counts = new int[to - from];
+                for (int i = 0; i < size; i++) {
+                    int slot = keys[i] - from;
+                    if (slot < 0 || slot >= counts.length) {
+                        throw new IllegalArgumentException("key " + keys[i] + " outside [" + from + ", " + to + ")");
+                    }
+                    counts[slot]++;
+                }
+                dense = new int[counts.length];
+                int groups = 0;
+                for (int slot = 0; slot < counts.length; slot++) {
+                    dense[slot] = counts[slot] == 0 ? -1 : groups++;
+                }
+                distinct = new int[groups];
+                for (int slot = 0; slot < counts.length; slot++) {
+                    if (dense[slot] >= 0) {
+                        distinct[dense[slot]] = slot + from;
+                    }
+                }
+                for (int i = 0; i < size; i++) {
+                    ordinals[i] = dense[keys[i] - from];
+                }
+            } else {
+                index = new IntIntHashMap(16);
+                int[] seen = new int[16];
+                int groups = 0;
+                for (int i = 0; i < size; i++) {
+                    if (index.putIfAbsent(keys[i], groups) < 0) {
+                        if (groups == seen.length) {
+                            seen = Arrays.copyOf(seen, groups * 2);
+                        }
+                        seen[groups++] = keys[i];
+                    }
+                }
+                distinct = Arrays.copyOf(seen, groups);
+                Arrays.sort(distinct);
+                for (int g = 0; g < groups; g++) {
+                    index.put(distinct[g], g);
+                }
+                for (int i = 0; i < size; i++) {
+                    ordinals[i] = index.get(keys[i]);
+                }
+            }
+            int[] offsets = new int[distinct.length + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[ordinals[i] + 1]++;
+            }
+            for (int g = 0; g < distinct.length; g++) {
+                offsets[g + 1] += offsets[g];
+            }
+            int[] cursor = Arrays.copyOf(offsets, distinct.length);
+            Object[] sorted = new Object[size];
+            for (int i = 0; i < size; i++) {
+                sorted[cursor[ordinals[i]]++] = elements[i];
+            }
+            return new IntGroups<>(distinct, offsets, sorted, from, dense, index);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.stream;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * Elements grouped by an int key, stored column-wise: one array of elements ordered by key, and
+ * per group its key and start offset. Groups are in ascending key order and keep encounter order
+ * within a group. {@link #get} returns a view over the shared array, not a copy.
+ */
+public final class IntGroups<T> {
+
+    private final int[] keys;
+    private final int[] offsets;
+    private final Object[] elements;
+    private final int denseBase;
+    private final int[] dense;
+    private final IntIntHashMap index;
+
+    IntGroups(int[] keys, int[] offsets, Object[] elements, int denseBase, int[] dense, IntIntHashMap index) {
+        this.keys = keys;
+        this.offsets = offsets;
+        this.elements = elements;
+        this.denseBase = denseBase;
+        this.dense = dense;
+        this.index = index;
+    }
+
+    /**
+     * Number of non-empty groups.
+     */
+    public int groupCount() {
+        return keys.length;
+    }
+
+    /**
+     * Total number of grouped elements.
+     */
+    public int size() {
+        return elements.length;
+    }
+
+    public int key(int group) {
+        return keys[group];
+    }
+
+    public boolean containsKey(int key) {
+        return groupOf(key) >= 0;
+    }
+
+    public int count(int key) {
+        int group = groupOf(key);
+        return group < 0 ? 0 : offsets[group + 1] - offsets[group];
+    }
+
+    public List<T> get(int key) {
+        int group = groupOf(key);
+        return group < 0 ? Collections.emptyList() : group(group);
+    }
+
+    public List<T> group(int group) {
+        return new Slice<>(elements, offsets[group], offsets[group + 1]);
+    }
+
+    /**
+     * Boxed copy of the index, for callers that need a {@code Map}; the lists are still views.
+     */
+    public <K> Map<K, List<T>> toMap(IntFunction<? extends K> keyMapper) {
+        Map<K, List<T>> map = new LinkedHashMap<>();
+        for (int g = 0; g < keys.length; g++) {
+            map.put(keyMapper.apply(keys[g]), group(g));
+        }
+        return map;
+    }
+
+    private int groupOf(int key) {
+        if (dense != null) {
+            int slot = key - denseBase;
+            return slot >= 0 && slot < dense.length ? dense[slot] : -1;
+        }
+        return index.get(key);
+    }
+
+    private static final class Slice<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[] elements;
+        private final int from;
+        private final int to;
+
+        Slice(Object[] elements, int from, int to) {
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int i) {
+            if (i < 0 || i >= to - from) {
+                throw new IndexOutOfBoundsException(i);
+            }
+            return (T) elements[from + i];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.stream;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressed int to int map with linear probing. Values must be non-negative; {@link #get}
+ * returns -1 for a missing key. There is no removal, which is all grouping needs.
+ */
+final class IntIntHashMap {
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    IntIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, -1);
+        mask = capacity - 1;
+    }
+
+    int get(int key) {
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            int value = values[i];
+            if (value < 0 || keys[i] == key) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Returns the existing value for {@code key}, or stores {@code value} and returns -1.
+     */
+    int putIfAbsent(int key, int value) {
+        int i = slot(key);
+        if (values[i] >= 0) {
+            return values[i];
+        }
+        insert(i, key, value);
+        return -1;
+    }
+
+    void put(int key, int value) {
+        int i = slot(key);
+        if (values[i] >= 0) {
+            values[i] = value;
+        } else {
+            insert(i, key, value);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(int key) {
+        int i = mix(key) & mask;
+        while (values[i] >= 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void insert(int i, int key, int value) {
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(values, -1);
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] >= 0) {
+                int i = mix(oldKeys[j]) & mask;
+                while (values[i] >= 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
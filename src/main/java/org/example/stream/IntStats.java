@@ -0,0 +1,85 @@
+package org.example.stream;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Count, sum, min, max, mean and variance of int values in one pass, without boxing or any
+ * allocation per element. Variance uses Welford's update and Chan's merge, so combining the
+ * partial results of a parallel stream is as accurate as a sequential pass.
+ */
+@Getter
+@ToString
+public final class IntStats implements IntConsumer {
+
+    private long count;
+    private long sum;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    @Getter(AccessLevel.NONE)
+    private double mean;
+    @Getter(AccessLevel.NONE)
+    private double m2;
+
+    public static IntStats of(IntStream values) {
+        return values.collect(IntStats::new, IntStats::accept, IntStats::combine);
+    }
+
+    @Override
+    public void accept(int value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public IntStats combine(IntStats other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            sum = other.sum;
+            min = other.min;
+            max = other.max;
+            mean = other.mean;
+            m2 = other.m2;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Population variance; 0 for fewer than two values.
+     */
+    public double getVariance() {
+        return count < 2 ? 0 : m2 / count;
+    }
+
+    public double getSampleVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.stream;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * A join kept as a rope of element references: segments of up to 64K strings that are linked,
+ * never copied, as elements arrive and as parallel leaves are combined. No text is copied until
+ * the rope is written out: {@link #toString()} builds the result once at its exact size, and
+ * {@link #writeTo(Writer)} and {@link #writeUtf8(ByteBuffer)} never build it at all.
+ */
+public final class Joined {
+
+    private static final int MAX_SEGMENT = 64 * 1024;
+
+    private final String delimiter;
+    private final String prefix;
+    private final String suffix;
+    private String[][] segments = new String[1][16];
+    private int[] counts = new int[1];
+    private int segmentCount = 1;
+    private long size;
+
+    Joined(CharSequence delimiter, CharSequence prefix, CharSequence suffix) {
+        this.delimiter = delimiter.toString();
+        this.prefix = prefix.toString();
+        this.suffix = suffix.toString();
+    }
+
+    /**
+     * Non-String elements are copied with {@code toString()}, since a builder may change later.
+     */
+    Joined add(CharSequence element) {
+        int last = segmentCount - 1;
+        String[] tail = segments[last];
+        if (counts[last] == tail.length) {
+            if (tail.length < MAX_SEGMENT) {
+                tail = Arrays.copyOf(tail, tail.length * 2);
+                segments[last] = tail;
+            } else {
+                tail = new String[MAX_SEGMENT];
+                link(tail, 0);
+                last++;
+            }
+        }
+        tail[counts[last]++] = element.toString();
+        size++;
+        return this;
+    }
+
+    Joined merge(Joined other) {
+        for (int i = 0; i < other.segmentCount; i++) {
+            if (other.counts[i] > 0) {
+                link(other.segments[i], other.counts[i]);
+            }
+        }
+        size += other.size;
+        return this;
+    }
+
+    private void link(String[] segment, int count) {
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, segmentCount * 2);
+            counts = Arrays.copyOf(counts, segmentCount * 2);
+        }
+        segments[segmentCount] = segment;
+        counts[segmentCount++] = count;
+    }
+
+    /**
+     * Number of joined elements.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Length in chars, prefix and suffix included.
+     */
+    public long length() {
+        long length = prefix.length() + suffix.length() + (long) delimiter.length() * Math.max(0, size - 1);
+        for (int s = 0; s < segmentCount; s++) {
+            for (int i = 0; i < counts[s]; i++) {
+                length += segments[s][i].length();
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Length of the UTF-8 encoding, for sizing the buffer given to {@link #writeUtf8}.
+     */
+    public long utf8Length() {
+        long length = Utf8.length(prefix) + Utf8.length(suffix) + Utf8.length(delimiter) * Math.max(0, size - 1);
+        for (int s = 0; s < segmentCount; s++) {
+            for (int i = 0; i < counts[s]; i++) {
+                length += Utf8.length(segments[s][i]);
+            }
+        }
+        return length;
+    }
+
+    public void writeTo(Writer out) throws IOException {
+        out.write(prefix);
+        boolean first = true;
+        for (int s = 0; s < segmentCount; s++) {
+            for (int i = 0; i < counts[s]; i++) {
+                if (!first) {
+                    out.write(delimiter);
+                }
+                out.write(segments[s][i]);
+                first = false;
+            }
+        }
+        out.write(suffix);
+    }
+
+    /**
+     * Encodes the join into {@code out} from its current position.
+     *
+     * @throws BufferOverflowException if {@code out} has fewer than {@link #utf8Length()} bytes left
+     */
+    public void writeUtf8(ByteBuffer out) {
+        if (out.remaining() < utf8Length()) {
+            throw new BufferOverflowException();
+        }
+        byte[] scratch = new byte[8192];
+        int pending = Utf8.encode(prefix, out, scratch, 0);
+        boolean first = true;
+        for (int s = 0; s < segmentCount; s++) {
+            for (int i = 0; i < counts[s]; i++) {
+                if (!first) {
+                    pending = Utf8.encode(delimiter, out, scratch, pending);
+                }
+                pending = Utf8.encode(segments[s][i], out, scratch, pending);
+                first = false;
+            }
+        }
+        pending = Utf8.encode(suffix, out, scratch, pending);
+        out.put(scratch, 0, pending);
+    }
+
+    @Override
+    public String toString() {
+        // StringJoiner sizes its result exactly and copies each element once
+        StringJoiner joiner = new StringJoiner(delimiter, prefix, suffix);
+        for (int s = 0; s < segmentCount; s++) {
+            for (int i = 0; i < counts[s]; i++) {
+                joiner.add(segments[s][i]);
+            }
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.stream;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Joins without the quadratic copying of {@code reduce((a, b) -> a + " " + b)} and without its
+ * stray leading delimiter when an identity is given. {@link #joining} builds a String sized
+ * exactly; {@link #joined} keeps a {@link Joined} rope of the elements that is written to a
+ * Writer or a ByteBuffer without ever building the String, and {@link #joinTo} streams
+ * sequentially into a Writer holding nothing.
+ */
+public final class Joining {
+
+    private Joining() {
+    }
+
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter) {
+        return joining(delimiter, "", "");
+    }
+
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter, CharSequence prefix,
+                                                             CharSequence suffix) {
+        return Collector.of(() -> new Leaves(delimiter), Leaves::add, Leaves::merge,
+                leaves -> leaves.toString(prefix, suffix));
+    }
+
+    /**
+     * The collector behind {@link #joining}: one StringJoiner per leaf, which sizes its text
+     * exactly, and leaves linked rather than flattened when combined. A sequential join without
+     * prefix or suffix is copied once; otherwise each leaf is copied once more into the result.
+     */
+    private static final class Leaves {
+        private final CharSequence delimiter;
+        private final List<StringJoiner> leaves = new ArrayList<>(1);
+
+        Leaves(CharSequence delimiter) {
+            this.delimiter = delimiter;
+        }
+
+        void add(CharSequence element) {
+            if (leaves.isEmpty()) {
+                leaves.add(new StringJoiner(delimiter));
+            }
+            leaves.get(leaves.size() - 1).add(element);
+        }
+
+        Leaves merge(Leaves other) {
+            leaves.addAll(other.leaves);
+            return this;
+        }
+
+        String toString(CharSequence prefix, CharSequence suffix) {
+            if (leaves.size() == 1 && prefix.length() == 0 && suffix.length() == 0) {
+                return leaves.get(0).toString();
+            }
+            StringJoiner result = new StringJoiner(delimiter, prefix, suffix);
+            for (StringJoiner leaf : leaves) {
+                result.merge(leaf);
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     * Collects into the rope itself, for writing out without building a String.
+     */
+    public static Collector<CharSequence, ?, Joined> joined(CharSequence delimiter, CharSequence prefix,
+                                                            CharSequence suffix) {
+        return Collector.of(() -> new Joined(delimiter, prefix, suffix), Joined::add, Joined::merge);
+    }
+
+    /**
+     * Writes the elements to {@code out} as they arrive, holding nothing but the current element.
+     *
+     * @return the number of elements written
+     */
+    public static long joinTo(Stream<? extends CharSequence> elements, CharSequence delimiter, Writer out)
+            throws IOException {
+        long count = 0;
+        for (Iterator<? extends CharSequence> it = elements.iterator(); it.hasNext(); count++) {
+            if (count > 0) {
+                out.append(delimiter);
+            }
+            out.append(it.next());
+        }
+        return count;
+    }
+}
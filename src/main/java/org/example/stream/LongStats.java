@@ -0,0 +1,84 @@
+package org.example.stream;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * Long counterpart of {@link IntStats}. The sum wraps on overflow, like
+ * {@link java.util.LongSummaryStatistics}.
+ */
+@Getter
+@ToString
+public final class LongStats implements LongConsumer {
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    @Getter(AccessLevel.NONE)
+    private double mean;
+    @Getter(AccessLevel.NONE)
+    private double m2;
+
+    public static LongStats of(LongStream values) {
+        return values.collect(LongStats::new, LongStats::accept, LongStats::combine);
+    }
+
+    @Override
+    public void accept(long value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        double delta = (double) value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public LongStats combine(LongStats other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            sum = other.sum;
+            min = other.min;
+            max = other.max;
+            mean = other.mean;
+            m2 = other.m2;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Population variance; 0 for fewer than two values.
+     */
+    public double getVariance() {
+        return count < 2 ? 0 : m2 / count;
+    }
+
+    public double getSampleVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+}
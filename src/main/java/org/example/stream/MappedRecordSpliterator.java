@@ -0,0 +1,162 @@
+package org.example.stream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the records in {@code [position, end)} of a file. Both bounds always sit on
+ * record boundaries. The range is mapped one window at a time; a record that crosses the end of
+ * a window is re-read from a window starting at that record.
+ */
+final class MappedRecordSpliterator<T> implements Spliterator<T> {
+
+    private final FileChannel channel;
+    private final int width;
+    private final int window;
+    private final long minSplit;
+    private final RecordParser<? extends T> parser;
+    private long position;
+    private final long end;
+    private ByteBuffer mapped;
+    private long mappedStart;
+
+    /**
+     * @param width record width, or 0 for {@code \n}-separated records
+     */
+    MappedRecordSpliterator(FileChannel channel, long position, long end, int width, int window, long minSplit,
+                            RecordParser<? extends T> parser) {
+        this.channel = channel;
+        this.position = position;
+        this.end = end;
+        this.width = width;
+        this.window = window;
+        this.minSplit = minSplit;
+        this.parser = parser;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        try {
+            return width > 0 ? advanceFixed(action) : advanceLine(action);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean advanceFixed(Consumer<? super T> action) throws IOException {
+        if (position >= end) {
+            return false;
+        }
+        if (mapped == null || position + width > mappedStart + mapped.limit()) {
+            // keep windows a whole number of records so none straddles two
+            map(position, (long) (window / width) * width);
+        }
+        int from = (int) (position - mappedStart);
+        position += width;
+        action.accept(parser.parse(mapped, from, from + width));
+        return true;
+    }
+
+    private boolean advanceLine(Consumer<? super T> action) throws IOException {
+        while (position < end) {
+            if (mapped == null || position >= mappedStart + mapped.limit()) {
+                map(position, window);
+            }
+            int from = (int) (position - mappedStart);
+            int newline = indexOfNewline(mapped, from);
+            int to;
+            if (newline >= 0) {
+                to = newline;
+                position = mappedStart + newline + 1;
+            } else if (mappedStart + mapped.limit() == end) {
+                to = mapped.limit();
+                position = end;
+            } else if (from > 0) {
+                map(position, window);
+                continue;
+            } else {
+                throw new IOException("record at offset " + position + " is longer than the " + window + " byte window");
+            }
+            if (to > from && mapped.get(to - 1) == '\r') {
+                to--;
+            }
+            if (to > from) {
+                action.accept(parser.parse(mapped, from, to));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        long remaining = end - position;
+        if (remaining < 2 * minSplit) {
+            return null;
+        }
+        try {
+            long mid = width > 0
+                    ? position + remaining / 2 / width * width
+                    : nextLineStart(position + remaining / 2);
+            if (mid <= position || mid >= end) {
+                return null;
+            }
+            MappedRecordSpliterator<T> prefix = new MappedRecordSpliterator<>(
+                    channel, position, mid, width, window, minSplit, parser);
+            position = mid;
+            mapped = null;
+            return prefix;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Offset just past the first {@code \n} at or after {@code from}, or {@code end}.
+     */
+    private long nextLineStart(long from) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (long at = from; at < end; ) {
+            probe.clear().limit((int) Math.min(probe.capacity(), end - at));
+            int read = channel.read(probe, at);
+            if (read < 0) {
+                break;
+            }
+            int newline = indexOfNewline(probe.flip(), 0);
+            if (newline >= 0) {
+                return at + newline + 1;
+            }
+            at += read;
+        }
+        return end;
+    }
+
+    private void map(long from, long length) throws IOException {
+        mappedStart = from;
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(length, end - from));
+    }
+
+    private static int indexOfNewline(ByteBuffer buffer, int from) {
+        for (int i = from, limit = buffer.limit(); i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long estimateSize() {
+        return width > 0 ? (end - position) / width : end - position;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | NONNULL | IMMUTABLE;
+        return width > 0 ? characteristics | SIZED | SUBSIZED : characteristics;
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.stream;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link Reduction}s in parallel. Every fork-join leaf starts from its own
+ * {@code identity()} and accumulates into it in place, so a reduction over mutable accumulators
+ * allocates one accumulator per leaf rather than one per element, and no two threads ever share
+ * one.
+ * <p>
+ * With {@code verify} on, each reduction first checks the reduction itself on the given elements:
+ * that {@code identity()} is not a shared instance the accumulator mutates, that it is neutral
+ * for {@code combine}, and that {@code trials} random split trees (seeded by {@code seed}) all
+ * give the sequential result. A failed check throws an {@link IllegalStateException} naming it.
+ * Verification costs several extra passes, so it is meant for tests and staging.
+ */
+@Getter
+@Builder
+public class ParallelReducer {
+
+    @Builder.Default
+    private final boolean verify = false;
+    @Builder.Default
+    private final int trials = 16;
+    @Builder.Default
+    private final long seed = 42;
+    @Builder.Default
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    public static ParallelReducer defaults() {
+        return ParallelReducer.builder().build();
+    }
+
+    public <T, A> A reduce(List<T> elements, Reduction<T, A> reduction) {
+        if (verify) {
+            verify(elements, reduction);
+        }
+        return pool.submit(() -> elements.parallelStream().collect(collector(reduction))).join();
+    }
+
+    /**
+     * Reduces a stream in parallel. In verify mode the stream is first collected into a list.
+     */
+    public <T, A> A reduce(Stream<T> elements, Reduction<T, A> reduction) {
+        if (verify) {
+            return reduce(elements.toList(), reduction);
+        }
+        return pool.submit(() -> elements.parallel().collect(collector(reduction))).join();
+    }
+
+    /**
+     * The reduction as a collector; one mutable holder per leaf carries the accumulator, so
+     * reductions that return a new value from {@code accumulate} work as well.
+     */
+    public static <T, A> Collector<T, ?, A> collector(Reduction<T, A> reduction) {
+        return Collector.<T, Holder<A>, A>of(
+                () -> new Holder<>(reduction.identity()),
+                (holder, element) -> holder.value = reduction.accumulate(holder.value, element),
+                (left, right) -> {
+                    left.value = reduction.combine(left.value, right.value);
+                    return left;
+                },
+                holder -> holder.value);
+    }
+
+    /**
+     * @throws IllegalStateException if the reduction breaks one of the monoid laws on {@code elements}
+     */
+    public <T, A> void verify(List<T> elements, Reduction<T, A> reduction) {
+        if (!elements.isEmpty()) {
+            A first = reduction.identity();
+            A second = reduction.identity();
+            if (first == second && reduction.accumulate(first, elements.get(0)) == first) {
+                throw new IllegalStateException(
+                        "identity() returns a shared instance that accumulate mutates: " + first);
+            }
+        }
+        A expected = fold(elements, 0, elements.size(), reduction);
+        A leftIdentity = reduction.combine(reduction.identity(), fold(elements, 0, elements.size(), reduction));
+        A rightIdentity = reduction.combine(fold(elements, 0, elements.size(), reduction), reduction.identity());
+        if (!reduction.equivalent(expected, leftIdentity) || !reduction.equivalent(expected, rightIdentity)) {
+            throw new IllegalStateException("identity() is not neutral for combine: expected " + expected
+                    + ", got " + leftIdentity + " and " + rightIdentity);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int trial = 0; trial < trials; trial++) {
+            long trialSeed = random.nextLong();
+            A actual = pool.invoke(new RandomSplit<>(elements, 0, elements.size(), reduction,
+                    new SplittableRandom(trialSeed)));
+            if (!reduction.equivalent(expected, actual)) {
+                throw new IllegalStateException("combine is not associative: sequential result " + expected
+                        + ", random split (seed " + trialSeed + ") gave " + actual);
+            }
+        }
+    }
+
+    private static <T, A> A fold(List<T> elements, int from, int to, Reduction<T, A> reduction) {
+        A accumulator = reduction.identity();
+        for (int i = from; i < to; i++) {
+            accumulator = reduction.accumulate(accumulator, elements.get(i));
+        }
+        return accumulator;
+    }
+
+    private static final class Holder<A> {
+        A value;
+
+        Holder(A value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Splits at a random point, sometimes leaving one side empty, down to leaves of random size.
+     */
+    private static final class RandomSplit<T, A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> elements;
+        private final int from;
+        private final int to;
+        private final Reduction<T, A> reduction;
+        private final SplittableRandom random;
+
+        RandomSplit(List<T> elements, int from, int to, Reduction<T, A> reduction, SplittableRandom random) {
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+            this.reduction = reduction;
+            this.random = random;
+        }
+
+        @Override
+        protected A compute() {
+            int length = to - from;
+            if (length <= 1 || random.nextInt(8) == 0) {
+                return fold(elements, from, to, reduction);
+            }
+            int mid = from + random.nextInt(length + 1);
+            RandomSplit<T, A> left = new RandomSplit<>(elements, from, mid, reduction, random.split());
+            RandomSplit<T, A> right = new RandomSplit<>(elements, mid, to, reduction, random.split());
+            left.fork();
+            A rightResult = right.compute();
+            return reduction.combine(left.join(), rightResult);
+        }
+    }
+}
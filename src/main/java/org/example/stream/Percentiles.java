@@ -0,0 +1,66 @@
+package org.example.stream;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Exact percentiles of integral values. Values go into a growable {@code long[]} that is sorted
+ * once, on the first query after a change; nothing is boxed.
+ */
+public final class Percentiles implements LongConsumer {
+
+    private long[] values = new long[16];
+    private int size;
+    private boolean sorted = true;
+
+    @Override
+    public void accept(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+        sorted = false;
+    }
+
+    public Percentiles combine(Percentiles other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+        sorted = false;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Nearest-rank percentile for {@code p} in [0, 100].
+     *
+     * @throws IllegalStateException if no values were accepted
+     */
+    public long percentile(double p) {
+        if (p < 0 || p > 100) {
+            throw new IllegalArgumentException("percentile must be in [0, 100]: " + p);
+        }
+        if (size == 0) {
+            throw new IllegalStateException("no values");
+        }
+        sort();
+        int rank = (int) Math.ceil(p / 100 * size);
+        return values[Math.max(rank, 1) - 1];
+    }
+
+    public long median() {
+        return percentile(50);
+    }
+
+    private void sort() {
+        if (!sorted) {
+            Arrays.sort(values, 0, size);
+            sorted = true;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.stream;
+
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Collectors over the primitive statistics containers in this package. The accumulators read the
+ * field straight into a primitive container, so no {@code Integer} or {@code Double} is created
+ * per element, unlike {@code map(...).reduce(...)} over boxed values.
+ */
+public final class PrimitiveCollectors {
+
+    private PrimitiveCollectors() {
+    }
+
+    public static <T> Collector<T, ?, IntStats> intStats(ToIntFunction<? super T> mapper) {
+        return Collector.of(IntStats::new, (stats, t) -> stats.accept(mapper.applyAsInt(t)), IntStats::combine,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, LongStats> longStats(ToLongFunction<? super T> mapper) {
+        return Collector.of(LongStats::new, (stats, t) -> stats.accept(mapper.applyAsLong(t)), LongStats::combine,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, DoubleStats> doubleStats(ToDoubleFunction<? super T> mapper) {
+        return Collector.of(DoubleStats::new, (stats, t) -> stats.accept(mapper.applyAsDouble(t)),
+                DoubleStats::combine,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, Percentiles> percentiles(ToLongFunction<? super T> mapper) {
+        return Collector.of(Percentiles::new, (p, t) -> p.accept(mapper.applyAsLong(t)), Percentiles::combine,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, DoublePercentiles> doublePercentiles(ToDoubleFunction<? super T> mapper) {
+        return Collector.of(DoublePercentiles::new, (p, t) -> p.accept(mapper.applyAsDouble(t)),
+                DoublePercentiles::combine,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.stream;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * The product shape of the stream tests, as read from a file of {@code id,producedAt,price} lines.
+ */
+public record Product(String id, String producedAt, int price) {
+
+    public static final RecordParser<Product> CSV = Product::parseCsv;
+
+    /**
+     * Parses {@code A-1,20240101,1500}; the price is decoded straight from the bytes.
+     *
+     * @throws IllegalArgumentException if the record does not have three fields or a numeric price
+     */
+    public static Product parseCsv(ByteBuffer buffer, int from, int to) {
+        int first = indexOf(buffer, from, to);
+        int second = first < 0 ? -1 : indexOf(buffer, first + 1, to);
+        if (second < 0) {
+            throw new IllegalArgumentException("expected id,producedAt,price but got: " + text(buffer, from, to));
+        }
+        return new Product(text(buffer, from, first), text(buffer, first + 1, second),
+                parseInt(buffer, second + 1, to));
+    }
+
+    /**
+     * {@code producedAt} as an epoch day.
+     *
+     * @throws IllegalArgumentException if it is not a yyyyMMdd date
+     */
+    public int producedAtDay() {
+        return epochDay(producedAt);
+    }
+
+    public static int epochDay(String yyyyMMdd) {
+        if (yyyyMMdd.length() != 8) {
+            throw new IllegalArgumentException("expected yyyyMMdd but got: " + yyyyMMdd);
+        }
+        int value = 0;
+        for (int i = 0; i < 8; i++) {
+            int digit = yyyyMMdd.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("expected yyyyMMdd but got: " + yyyyMMdd);
+            }
+            value = value * 10 + digit;
+        }
+        try {
+            return (int) LocalDate.of(value / 10_000, value / 100 % 100, value % 100).toEpochDay();
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("not a date: " + yyyyMMdd, e);
+        }
+    }
+
+    public static String producedAt(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return String.format("%04d%02d%02d", date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == ',') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String text(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int parseInt(ByteBuffer buffer, int from, int to) {
+        boolean negative = from < to && buffer.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to) {
+            throw new IllegalArgumentException("missing price: " + text(buffer, from, to));
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("not a price: " + text(buffer, from, to));
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value != (int) value) {
+            throw new IllegalArgumentException("price out of range: " + text(buffer, from, to));
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.stream;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keeps price totals per group up to date as products arrive, instead of recomputing a
+ * {@code ProductStat} over the full list. Each group has all-time totals, which support
+ * {@link #retract}, and totals over a sliding window of the last {@code windowDays} days of
+ * {@code producedAt}.
+ * <p>
+ * Products must arrive in non-decreasing {@code producedAt} order for the windows. A retraction
+ * corrects the all-time totals and, while the product is still inside it, the window. Adding to
+ * a window is amortized O(1); the all-time totals and retractions cost more, see
+ * {@link RetractableStats} and {@link SlidingWindow#remove}. Not thread-safe: feed it from one thread and publish {@link #snapshot()}s.
+ */
+public final class ProductAggregator<K> {
+
+    private final Function<? super Product, ? extends K> classifier;
+    private final int windowDays;
+    private final Map<K, Group> groups = new HashMap<>();
+    private long now = Long.MIN_VALUE;
+
+    public ProductAggregator(Function<? super Product, ? extends K> classifier, int windowDays) {
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("windowDays must be positive, was " + windowDays);
+        }
+        this.classifier = classifier;
+        this.windowDays = windowDays;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the product was made before the latest one added
+     */
+    public void add(Product product) {
+        int day = product.producedAtDay();
+        if (day < now) {
+            throw new IllegalArgumentException("product " + product.id() + " from " + product.producedAt()
+                    + " arrived after " + Product.producedAt((int) now));
+        }
+        Group group = groups.computeIfAbsent(classifier.apply(product), k -> new Group(windowDays));
+        group.all.add(product.price());
+        group.window.add(day, product.price());
+        now = day;
+    }
+
+    /**
+     * Removes an earlier product from its group's all-time totals, and from its window if the
+     * window has not slid past it yet.
+     *
+     * @throws IllegalArgumentException if the group holds no product at that price, or its
+     *                                  window none at that price on that day
+     */
+    public void retract(Product product) {
+        Group group = groups.get(classifier.apply(product));
+        if (group == null) {
+            throw new IllegalArgumentException("no products in the group of " + product.id());
+        }
+        group.window.advanceTo(now);
+        // the window first: when it holds the product so do the all-time totals, so nothing is half-removed
+        group.window.remove(product.producedAtDay(), product.price());
+        group.all.remove(product.price());
+    }
+
+    public Totals totals(K key) {
+        Group group = groups.get(key);
+        return group == null ? Totals.EMPTY : group.all.totals();
+    }
+
+    /**
+     * Totals of the group over the {@code windowDays} days up to and including the latest
+     * {@code producedAt} added or passed to {@link #advanceTo}.
+     */
+    public Totals windowTotals(K key) {
+        Group group = groups.get(key);
+        if (group == null) {
+            return Totals.EMPTY;
+        }
+        group.window.advanceTo(now);
+        return group.window.totals();
+    }
+
+    /**
+     * Slides every window to {@code day}, for when time passes without new products.
+     */
+    public void advanceTo(LocalDate day) {
+        if (day.toEpochDay() > now) {
+            now = day.toEpochDay();
+        }
+    }
+
+    public Map<K, Totals> snapshot() {
+        Map<K, Totals> snapshot = new LinkedHashMap<>();
+        groups.forEach((key, group) -> {
+            if (group.all.count() > 0) {
+                snapshot.put(key, group.all.totals());
+            }
+        });
+        return snapshot;
+    }
+
+    public Map<K, Totals> windowSnapshot() {
+        Map<K, Totals> snapshot = new LinkedHashMap<>();
+        groups.forEach((key, group) -> {
+            group.window.advanceTo(now);
+            if (group.window.count() > 0) {
+                snapshot.put(key, group.window.totals());
+            }
+        });
+        return snapshot;
+    }
+
+    private static final class Group {
+        final RetractableStats all = new RetractableStats();
+        final SlidingWindow window;
+
+        Group(int windowDays) {
+            window = new SlidingWindow(windowDays);
+        }
+    }
+}
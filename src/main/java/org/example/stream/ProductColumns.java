@@ -0,0 +1,257 @@
+package org.example.stream;
+
+import java.nio.IntBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.IntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * {@link Product}s stored column-wise off-heap: the id as a code into a dictionary of distinct
+ * ids, {@code producedAt} as an epoch day and the price as an int. Scans run over three flat
+ * int columns instead of chasing a record and two strings per row, and grouping uses dense
+ * arrays indexed by code or day.
+ * <p>
+ * The columns take 12 bytes per row of direct memory, which is capped by
+ * {@code -XX:MaxDirectMemorySize} and defaults to the maximum heap size; size it for the rows
+ * expected, or building fails with an {@link OutOfMemoryError}. Columns grow a chunk at a time,
+ * so pass the row count to {@link #builder(int)} when it is known to keep the last chunk tight.
+ * <p>
+ * Instances are immutable once built; use {@link #builder()}, {@link #of} or {@link #collector()}.
+ */
+public final class ProductColumns {
+
+    private static final int DEFAULT_ROWS = 1024;
+
+    private final List<String> ids;
+    // chunks of IntColumn.CHUNK_SIZE rows, the last one possibly shorter
+    private final IntBuffer[] idCodes;
+    private final IntBuffer[] days;
+    private final IntBuffer[] prices;
+    private final int size;
+
+    private ProductColumns(List<String> ids, IntColumn idCodes, IntColumn days, IntColumn prices) {
+        this.ids = ids;
+        this.idCodes = idCodes.values();
+        this.days = days.values();
+        this.prices = prices.values();
+        this.size = prices.size();
+    }
+
+    public static Builder builder() {
+        return new Builder(DEFAULT_ROWS);
+    }
+
+    /**
+     * @param expectedRows rows about to be added; more may follow at the cost of a chunk copy
+     */
+    public static Builder builder(int expectedRows) {
+        return new Builder(expectedRows);
+    }
+
+    /**
+     * Sized up front when the stream knows its size.
+     */
+    public static ProductColumns of(Stream<Product> products) {
+        Spliterator<Product> spliterator = products.sequential().spliterator();
+        long exact = spliterator.getExactSizeIfKnown();
+        Builder builder = exact < 0 ? builder() : builder((int) Math.min(exact, IntColumn.MAX_SIZE));
+        spliterator.forEachRemaining(builder::add);
+        return builder.build();
+    }
+
+    public static Collector<Product, ?, ProductColumns> collector() {
+        return Collector.of(ProductColumns::builder, Builder::add, Builder::addAll, Builder::build);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int distinctIds() {
+        return ids.size();
+    }
+
+    public Product get(int row) {
+        int chunk = row >>> IntColumn.CHUNK_SHIFT;
+        int offset = row & (IntColumn.CHUNK_SIZE - 1);
+        return new Product(ids.get(idCodes[chunk].get(offset)), Product.producedAt(days[chunk].get(offset)),
+                prices[chunk].get(offset));
+    }
+
+    public Totals priceTotals() {
+        long sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (IntBuffer chunk : prices) {
+            for (int i = 0; i < chunk.limit(); i++) {
+                int price = chunk.get(i);
+                sum += price;
+                min = Math.min(min, price);
+                max = Math.max(max, price);
+            }
+        }
+        return size == 0 ? Totals.EMPTY : new Totals(size, sum, min, max);
+    }
+
+    /**
+     * Price totals of the products made in {@code [from, to)}.
+     */
+    public Totals priceTotals(LocalDate from, LocalDate to) {
+        int first = (int) from.toEpochDay();
+        int last = (int) to.toEpochDay();
+        long count = 0;
+        long sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int c = 0; c < prices.length; c++) {
+            IntBuffer dayChunk = days[c];
+            IntBuffer priceChunk = prices[c];
+            for (int i = 0; i < priceChunk.limit(); i++) {
+                int day = dayChunk.get(i);
+                if (day >= first && day < last) {
+                    int price = priceChunk.get(i);
+                    count++;
+                    sum += price;
+                    min = Math.min(min, price);
+                    max = Math.max(max, price);
+                }
+            }
+        }
+        return count == 0 ? Totals.EMPTY : new Totals(count, sum, min, max);
+    }
+
+    /**
+     * Price totals per production day, for days in {@code [from, to)} that have products.
+     */
+    public Map<LocalDate, Totals> priceTotalsByDay(LocalDate from, LocalDate to) {
+        int first = (int) from.toEpochDay();
+        int range = Math.toIntExact(to.toEpochDay() - first);
+        Groups groups = new Groups(Math.max(range, 0));
+        for (int c = 0; c < prices.length; c++) {
+            IntBuffer dayChunk = days[c];
+            IntBuffer priceChunk = prices[c];
+            for (int i = 0; i < priceChunk.limit(); i++) {
+                int slot = dayChunk.get(i) - first;
+                if (slot >= 0 && slot < range) {
+                    groups.add(slot, priceChunk.get(i));
+                }
+            }
+        }
+        return groups.toMap(slot -> LocalDate.ofEpochDay(first + slot));
+    }
+
+    /**
+     * Price totals per first character of the id, as MapCollectTest groups its products.
+     */
+    public Map<Character, Totals> priceTotalsByIdPrefix() {
+        Map<Character, Integer> prefixCodes = new HashMap<>();
+        List<Character> prefixes = new ArrayList<>();
+        int[] prefixOfId = new int[ids.size()];
+        for (int code = 0; code < prefixOfId.length; code++) {
+            String id = ids.get(code);
+            Character prefix = id.isEmpty() ? '\0' : id.charAt(0);
+            prefixOfId[code] = prefixCodes.computeIfAbsent(prefix, c -> {
+                prefixes.add(c);
+                return prefixes.size() - 1;
+            });
+        }
+        Groups groups = new Groups(prefixes.size());
+        for (int c = 0; c < prices.length; c++) {
+            IntBuffer codeChunk = idCodes[c];
+            IntBuffer priceChunk = prices[c];
+            for (int i = 0; i < priceChunk.limit(); i++) {
+                groups.add(prefixOfId[codeChunk.get(i)], priceChunk.get(i));
+            }
+        }
+        return groups.toMap(prefixes::get);
+    }
+
+    /**
+     * Dense per-group accumulators; empty groups are left out of the result.
+     */
+    private static final class Groups {
+        private final long[] counts;
+        private final long[] sums;
+        private final int[] mins;
+        private final int[] maxs;
+
+        Groups(int groups) {
+            counts = new long[groups];
+            sums = new long[groups];
+            mins = new int[groups];
+            maxs = new int[groups];
+            Arrays.fill(mins, Integer.MAX_VALUE);
+            Arrays.fill(maxs, Integer.MIN_VALUE);
+        }
+
+        void add(int group, int value) {
+            counts[group]++;
+            sums[group] += value;
+            mins[group] = Math.min(mins[group], value);
+            maxs[group] = Math.max(maxs[group], value);
+        }
+
+        <K> Map<K, Totals> toMap(IntFunction<? extends K> key) {
+            Map<K, Totals> map = new LinkedHashMap<>();
+            for (int g = 0; g < counts.length; g++) {
+                if (counts[g] > 0) {
+                    map.put(key.apply(g), new Totals(counts[g], sums[g], mins[g], maxs[g]));
+                }
+            }
+            return map;
+        }
+    }
+
+    public static final class Builder {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final IntColumn idCodes;
+        private final IntColumn days;
+        private final IntColumn prices;
+
+        private Builder(int expectedRows) {
+            idCodes = new IntColumn(expectedRows);
+            days = new IntColumn(expectedRows);
+            prices = new IntColumn(expectedRows);
+        }
+
+        /**
+         * @throws IllegalArgumentException if {@code producedAt} is not a yyyyMMdd date
+         */
+        public Builder add(Product product) {
+            return add(product.id(), product.producedAtDay(), product.price());
+        }
+
+        private Builder add(String id, int day, int price) {
+            Integer code = codes.get(id);
+            if (code == null) {
+                code = ids.size();
+                codes.put(id, code);
+                ids.add(id);
+            }
+            idCodes.add(code);
+            days.add(day);
+            prices.add(price);
+            return this;
+        }
+
+        Builder addAll(Builder other) {
+            for (int i = 0; i < other.prices.size(); i++) {
+                add(other.ids.get(other.idCodes.get(i)), other.days.get(i), other.prices.get(i));
+            }
+            return this;
+        }
+
+        public ProductColumns build() {
+            return new ProductColumns(List.copyOf(ids), idCodes, days, prices);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.stream;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes one record from {@code buffer[from, to)}, absolute indices, without the line
+ * terminator. Implementations must not change the buffer's position or limit.
+ */
+@FunctionalInterface
+public interface RecordParser<T> {
+
+    T parse(ByteBuffer buffer, int from, int to);
+}
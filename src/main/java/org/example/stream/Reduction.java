@@ -0,0 +1,64 @@
+package org.example.stream;
+
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * A reduction as an explicit monoid over a mutable accumulator. {@link #identity()} must return
+ * a fresh accumulator on every call; {@link #accumulate} and {@link #combine} may mutate and
+ * return their first argument, but must not keep or mutate the second. {@code combine} has to be
+ * associative with {@code identity()} as its neutral element, which {@link ParallelReducer} can
+ * check.
+ */
+public interface Reduction<T, A> {
+
+    A identity();
+
+    A accumulate(A accumulator, T element);
+
+    A combine(A left, A right);
+
+    /**
+     * Equality of two results, used by verification. Defaults to {@link Objects#equals}.
+     */
+    default boolean equivalent(A left, A right) {
+        return Objects.equals(left, right);
+    }
+
+    static <T, A> Reduction<T, A> of(Supplier<A> identity, BiFunction<A, ? super T, A> accumulate,
+                                     BinaryOperator<A> combine) {
+        return of(identity, accumulate, combine, Objects::equals);
+    }
+
+    static <T, A> Reduction<T, A> of(Supplier<A> identity, BiFunction<A, ? super T, A> accumulate,
+                                     BinaryOperator<A> combine, BiPredicate<? super A, ? super A> equivalence) {
+        Objects.requireNonNull(identity);
+        Objects.requireNonNull(accumulate);
+        Objects.requireNonNull(combine);
+        Objects.requireNonNull(equivalence);
+        return new Reduction<>() {
+            @Override
+            public A identity() {
+                return identity.get();
+            }
+
+            @Override
+            public A accumulate(A accumulator, T element) {
+                return accumulate.apply(accumulator, element);
+            }
+
+            @Override
+            public A combine(A left, A right) {
+                return combine.apply(left, right);
+            }
+
+            @Override
+            public boolean equivalent(A left, A right) {
+                return equivalence.test(left, right);
+            }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.stream;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running count, sum, min and max that also supports removing a value that was added earlier,
+ * so a corrected or cancelled product can be retracted instead of recomputing. Min and max come
+ * from a sorted multiset of the distinct values, so {@link #add} and {@link #remove} cost
+ * O(log d) for d distinct values, and the first occurrence of a value allocates a map entry and
+ * its boxed key. Only reading {@link #count()} and the sum is O(1).
+ */
+public final class RetractableStats {
+
+    private final TreeMap<Integer, int[]> values = new TreeMap<>();
+    private long count;
+    private long sum;
+
+    public void add(int value) {
+        values.computeIfAbsent(value, v -> new int[1])[0]++;
+        count++;
+        sum += value;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code value} is not currently held
+     */
+    public void remove(int value) {
+        int[] multiplicity = values.get(value);
+        if (multiplicity == null) {
+            throw new IllegalArgumentException("value " + value + " was never added");
+        }
+        if (--multiplicity[0] == 0) {
+            values.remove(value);
+        }
+        count--;
+        sum -= value;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public Totals totals() {
+        if (count == 0) {
+            return Totals.EMPTY;
+        }
+        Map.Entry<Integer, int[]> first = values.firstEntry();
+        Map.Entry<Integer, int[]> last = values.lastEntry();
+        return new Totals(count, sum, first.getKey(), last.getKey());
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.stream;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * Collectors over the fixed-memory sketches in this package, for when exact distinct counts or
+ * percentiles per group no longer fit in memory. Each merges in the combiner, so they work
+ * under parallel streams and as {@code groupingBy} downstreams, and the results serialize with
+ * {@code toBytes()} for merging partial results from other nodes.
+ * <pre>
+ * Map&lt;String, HyperLogLog&gt; idsPerDay = products.parallelStream()
+ *         .collect(groupingBy(Product::producedAt, SketchCollectors.distinctCount(Product::id)));
+ * </pre>
+ */
+public final class SketchCollectors {
+
+    private SketchCollectors() {
+    }
+
+    public static <T> Collector<T, ?, HyperLogLog> distinctCount(Function<? super T, ? extends CharSequence> key) {
+        return distinctCount(key, HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    public static <T> Collector<T, ?, HyperLogLog> distinctCount(Function<? super T, ? extends CharSequence> key,
+                                                                int precision) {
+        return Collector.of(() -> new HyperLogLog(precision), (sketch, t) -> sketch.add(key.apply(t)),
+                HyperLogLog::merge,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, KllSketch> quantiles(ToDoubleFunction<? super T> value) {
+        return quantiles(value, KllSketch.DEFAULT_K);
+    }
+
+    public static <T> Collector<T, ?, KllSketch> quantiles(ToDoubleFunction<? super T> value, int k) {
+        return Collector.of(() -> new KllSketch(k), (sketch, t) -> sketch.add(value.applyAsDouble(t)),
+                KllSketch::merge,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, CountMinTopK> topK(Function<? super T, String> key, int k) {
+        return Collector.of(() -> new CountMinTopK(k), (sketch, t) -> sketch.add(key.apply(t)),
+                CountMinTopK::merge,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.stream;
+
+/**
+ * Count, sum, min and max of the values added in the last {@code length} time units. Values
+ * must arrive in non-decreasing time order. Every update is amortized O(1): the sum is kept
+ * incrementally over a FIFO, and min and max sit at the front of monotonic deques, from which
+ * each value is removed at most once.
+ * <p>
+ * {@link #remove} takes a value out of the window before it slides out. The monotonic deques
+ * have already dropped the values it dominated, so removal rebuilds them from the FIFO and costs
+ * O(w) for w values in the window.
+ */
+public final class SlidingWindow {
+
+    private final long length;
+    private final TimedRing entries = new TimedRing();
+    private final TimedRing mins = new TimedRing();
+    private final TimedRing maxs = new TimedRing();
+    private long sum;
+    private long now = Long.MIN_VALUE;
+
+    /**
+     * @param length the window holds values with {@code time > now - length}
+     */
+    public SlidingWindow(long length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be positive, was " + length);
+        }
+        this.length = length;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code time} is before the latest time seen
+     */
+    public void add(long time, int value) {
+        advanceTo(time);
+        entries.addLast(time, value);
+        sum += value;
+        push(time, value);
+    }
+
+    /**
+     * Removes a value added at {@code time} that is still in the window.
+     *
+     * @return {@code false} if the window has already slid past {@code time}
+     * @throws IllegalArgumentException if the window holds no such value at {@code time}
+     */
+    public boolean remove(long time, int value) {
+        if (time <= now - length) {
+            return false;
+        }
+        for (int i = entries.size() - 1; i >= 0 && entries.time(i) >= time; i--) {
+            if (entries.time(i) == time && entries.value(i) == value) {
+                entries.remove(i);
+                sum -= value;
+                mins.clear();
+                maxs.clear();
+                for (int j = 0; j < entries.size(); j++) {
+                    push(entries.time(j), entries.value(j));
+                }
+                return true;
+            }
+        }
+        throw new IllegalArgumentException("no value " + value + " at " + time + " in the window");
+    }
+
+    /**
+     * Moves the window forward without adding, dropping the values that fall out of it.
+     */
+    public void advanceTo(long time) {
+        if (time < now) {
+            throw new IllegalArgumentException("time " + time + " is before " + now);
+        }
+        now = time;
+        long cutoff = time - length;
+        while (!entries.isEmpty() && entries.firstTime() <= cutoff) {
+            sum -= entries.firstValue();
+            entries.removeFirst();
+        }
+        while (!mins.isEmpty() && mins.firstTime() <= cutoff) {
+            mins.removeFirst();
+        }
+        while (!maxs.isEmpty() && maxs.firstTime() <= cutoff) {
+            maxs.removeFirst();
+        }
+    }
+
+    private void push(long time, int value) {
+        while (!mins.isEmpty() && mins.lastValue() > value) {
+            mins.removeLast();
+        }
+        mins.addLast(time, value);
+        while (!maxs.isEmpty() && maxs.lastValue() < value) {
+            maxs.removeLast();
+        }
+        maxs.addLast(time, value);
+    }
+
+    public long count() {
+        return entries.size();
+    }
+
+    public Totals totals() {
+        return entries.isEmpty() ? Totals.EMPTY : new Totals(entries.size(), sum, mins.firstValue(), maxs.firstValue());
+    }
+}
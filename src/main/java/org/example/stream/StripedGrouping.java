@@ -0,0 +1,108 @@
+package org.example.stream;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Concurrent group-and-aggregate collectors. All threads of a parallel stream share one map of
+ * per-group cells, and each cell is striped like {@link LongAdder}, so a hot key spreads its
+ * updates over per-core counters instead of serialising on one. The collectors are
+ * {@code CONCURRENT}: there are no per-thread maps to merge, and the finisher reads each group
+ * once.
+ * <p>
+ * Unlike {@code groupingBy} these aggregate rather than collect elements; use
+ * {@link IntGrouping} to keep the elements themselves.
+ */
+public final class StripedGrouping {
+
+    private StripedGrouping() {
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> counting(Function<? super T, ? extends K> classifier) {
+        return Collector.of(ConcurrentHashMap<K, LongAdder>::new,
+                (cells, t) -> cell(cells, classifier.apply(t), k -> new LongAdder()).increment(),
+                StripedGrouping::mergeAdders,
+                cells -> snapshot(cells, LongAdder::sum),
+                Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> summingLong(Function<? super T, ? extends K> classifier,
+                                                                   ToLongFunction<? super T> value) {
+        return Collector.of(ConcurrentHashMap<K, LongAdder>::new,
+                (cells, t) -> cell(cells, classifier.apply(t), k -> new LongAdder()).add(value.applyAsLong(t)),
+                StripedGrouping::mergeAdders,
+                cells -> snapshot(cells, LongAdder::sum),
+                Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Count, sum, min and max per group.
+     */
+    public static <T, K> Collector<T, ?, Map<K, Totals>> summarizingLong(Function<? super T, ? extends K> classifier,
+                                                                         ToLongFunction<? super T> value) {
+        return Collector.of(ConcurrentHashMap<K, Cell>::new,
+                (cells, t) -> cell(cells, classifier.apply(t), k -> new Cell()).add(value.applyAsLong(t)),
+                StripedGrouping::mergeCells,
+                cells -> snapshot(cells, Cell::totals),
+                Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    private static final class Cell {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        void add(long value) {
+            count.increment();
+            sum.add(value);
+            min.accumulate(value);
+            max.accumulate(value);
+        }
+
+        void add(Cell other) {
+            count.add(other.count.sum());
+            sum.add(other.sum.sum());
+            min.accumulate(other.min.get());
+            max.accumulate(other.max.get());
+        }
+
+        Totals totals() {
+            return new Totals(count.sum(), sum.sum(), min.get(), max.get());
+        }
+    }
+
+    private static <K, C> C cell(ConcurrentHashMap<K, C> cells, K key, Function<? super K, ? extends C> factory) {
+        // get() never locks; computeIfAbsent is only reached for the first element of a group
+        C cell = cells.get(key);
+        return cell != null ? cell : cells.computeIfAbsent(key, factory);
+    }
+
+    /**
+     * Only reached when the collector is used without its CONCURRENT fast path, for instance as
+     * a downstream collector; a parallel stream otherwise shares a single map.
+     */
+    private static <K> ConcurrentHashMap<K, LongAdder> mergeAdders(ConcurrentHashMap<K, LongAdder> left,
+                                                                ConcurrentHashMap<K, LongAdder> right) {
+        right.forEach((key, adder) -> cell(left, key, k -> new LongAdder()).add(adder.sum()));
+        return left;
+    }
+
+    private static <K> ConcurrentHashMap<K, Cell> mergeCells(ConcurrentHashMap<K, Cell> left,
+                                                          ConcurrentHashMap<K, Cell> right) {
+        right.forEach((key, cell) -> cell(left, key, k -> new Cell()).add(cell));
+        return left;
+    }
+
+    private static <K, C, V> Map<K, V> snapshot(Map<K, C> cells, Function<? super C, ? extends V> read) {
+        Map<K, V> result = new HashMap<>((int) (cells.size() / 0.75f) + 1);
+        cells.forEach((key, cell) -> result.put(key, read.apply(cell)));
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.stream;
+
+/**
+ * Growable ring of (time, value) pairs usable as a deque. Backs the FIFO and the monotonic
+ * deques of {@link SlidingWindow} without allocating per entry once it has grown.
+ */
+final class TimedRing {
+
+    private long[] times = new long[16];
+    private int[] values = new int[16];
+    private int head;
+    private int size;
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void addLast(long time, int value) {
+        if (size == times.length) {
+            grow();
+        }
+        int tail = (head + size) & (times.length - 1);
+        times[tail] = time;
+        values[tail] = value;
+        size++;
+    }
+
+    long firstTime() {
+        return times[head];
+    }
+
+    int firstValue() {
+        return values[head];
+    }
+
+    int lastValue() {
+        return values[(head + size - 1) & (times.length - 1)];
+    }
+
+    void removeFirst() {
+        head = (head + 1) & (times.length - 1);
+        size--;
+    }
+
+    void removeLast() {
+        size--;
+    }
+
+    long time(int index) {
+        return times[(head + index) & (times.length - 1)];
+    }
+
+    int value(int index) {
+        return values[(head + index) & (times.length - 1)];
+    }
+
+    /**
+     * Removes the pair at {@code index}, shifting the later ones forward. O(size - index).
+     */
+    void remove(int index) {
+        int mask = times.length - 1;
+        for (int i = index; i < size - 1; i++) {
+            int to = (head + i) & mask;
+            int from = (head + i + 1) & mask;
+            times[to] = times[from];
+            values[to] = values[from];
+        }
+        size--;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        long[] newTimes = new long[times.length * 2];
+        int[] newValues = new int[times.length * 2];
+        int firstPart = Math.min(size, times.length - head);
+        System.arraycopy(times, head, newTimes, 0, firstPart);
+        System.arraycopy(values, head, newValues, 0, firstPart);
+        System.arraycopy(times, 0, newTimes, firstPart, size - firstPart);
+        System.arraycopy(values, 0, newValues, firstPart, size - firstPart);
+        times = newTimes;
+        values = newValues;
+        head = 0;
+    }
+}
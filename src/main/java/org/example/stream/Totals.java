@@ -0,0 +1,14 @@
+package org.example.stream;
+
+/**
+ * Count, sum, min and max of a group of long values. An empty group has min
+ * {@code Long.MAX_VALUE} and max {@code Long.MIN_VALUE}.
+ */
+public record Totals(long count, long sum, long min, long max) {
+
+    public static final Totals EMPTY = new Totals(0, 0, Long.MAX_VALUE, Long.MIN_VALUE);
+
+    public double average() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.stream;
+
+import java.util.function.Consumer;
+
+/**
+ * Totals over consecutive, non-overlapping windows of {@code length} time units, aligned to
+ * multiples of {@code length}. When a value arrives for a later window, the current one is
+ * handed to the listener; windows without values are skipped. Values must arrive in
+ * non-decreasing window order.
+ */
+public final class TumblingWindow {
+
+    public record Window(long start, long end, Totals totals) {
+    }
+
+    private final long length;
+    private final Consumer<? super Window> listener;
+    private long start = Long.MIN_VALUE;
+    private long count;
+    private long sum;
+    private int min;
+    private int max;
+
+    public TumblingWindow(long length, Consumer<? super Window> listener) {
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be positive, was " + length);
+        }
+        this.length = length;
+        this.listener = listener;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code time} belongs to a window that was already closed
+     */
+    public void add(long time, int value) {
+        long windowStart = Math.floorDiv(time, length) * length;
+        if (windowStart != start) {
+            if (windowStart < start) {
+                throw new IllegalArgumentException("time " + time + " is before the open window at " + start);
+            }
+            flush();
+            start = windowStart;
+        }
+        if (count++ == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        sum += value;
+    }
+
+    /**
+     * Totals of the open window so far.
+     */
+    public Totals current() {
+        return count == 0 ? Totals.EMPTY : new Totals(count, sum, min, max);
+    }
+
+    /**
+     * Closes the open window, if it has values, and hands it to the listener.
+     */
+    public void flush() {
+        if (count > 0) {
+            listener.accept(new Window(start, start + length, current()));
+            count = 0;
+            sum = 0;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.stream;
+
+import java.nio.ByteBuffer;
+
+/**
+ * UTF-8 encoding of CharSequences straight into a ByteBuffer, with no CharBuffer or byte[] per
+ * element. An unpaired surrogate is written as {@code ?}, as {@link String#getBytes} does.
+ */
+final class Utf8 {
+
+    private Utf8() {
+    }
+
+    static long length(CharSequence text) {
+        long length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes through {@code scratch}, which must hold at least 4 bytes, so the target sees
+     * bulk puts instead of one put per byte. {@code scratch[0, n)} holds bytes not yet put; the
+     * new count is returned, and the caller puts what is left after the last call.
+     */
+    static int encode(CharSequence text, ByteBuffer out, byte[] scratch, int n) {
+        int limit = scratch.length - 4;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (n > limit) {
+                out.put(scratch, 0, n);
+                n = 0;
+            }
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                scratch[n++] = (byte) c;
+            } else if (c < 0x800) {
+                scratch[n++] = (byte) (0xC0 | c >> 6);
+                scratch[n++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                scratch[n++] = (byte) (0xF0 | codePoint >> 18);
+                scratch[n++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                scratch[n++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                scratch[n++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                scratch[n++] = '?';
+            } else {
+                scratch[n++] = (byte) (0xE0 | c >> 12);
+                scratch[n++] = (byte) (0x80 | c >> 6 & 0x3F);
+                scratch[n++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return n;
+    }
+}
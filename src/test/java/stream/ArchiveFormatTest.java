@@ -0,0 +1,206 @@
+package stream;
+
+import org.example.ArchiveFormat;
+import org.example.FileDto;
+import org.example.Lz4FrameInputStream;
+import org.example.Lz4FrameOutputStream;
+import org.example.TarArchive;
+import org.example.TarCompression;
+import org.example.ZipStreamer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ArchiveFormatTest {
+
+    @TempDir
+    Path dir;
+
+    @DisplayName("every tar variant round-trips names and contents, including PAX long and UTF-8 names")
+    @ParameterizedTest
+    @EnumSource(TarCompression.class)
+    void tarRoundTrip(TarCompression compression) throws IOException {
+        Path text = Files.write(dir.resolve("text.txt"), "a sweet potato ".repeat(40_000).getBytes(StandardCharsets.US_ASCII));
+        Path random = Files.write(dir.resolve("random.bin"), random(300_001, 1));
+        Path empty = Files.write(dir.resolve("empty.bin"), new byte[0]);
+        String longName = "d".repeat(120) + "/caf\u00e9.bin";
+        List<FileDto> files = List.of(file("text.txt", text), file(longName, random), file("empty.bin", empty),
+                file("again/text.txt", text));
+
+        byte[] archive = write(TarArchive.of(compression), files);
+
+        Map<String, byte[]> entries = readTar(decompress(compression, archive));
+        assertThat(entries.keySet()).containsExactly("text.txt", longName, "empty.bin", "again/text.txt");
+        assertThat(entries.get("text.txt")).isEqualTo(Files.readAllBytes(text));
+        assertThat(entries.get(longName)).isEqualTo(Files.readAllBytes(random));
+        assertThat(entries.get("empty.bin")).isEmpty();
+        if (compression != TarCompression.NONE) {
+            assertThat(archive.length).isLessThan(decompress(compression, archive).length);
+        }
+    }
+
+    @DisplayName("zip and tar are interchangeable behind ArchiveFormat")
+    @Test
+    void formatsAreInterchangeable() throws IOException {
+        Path source = Files.write(dir.resolve("source.bin"), random(10_000, 2));
+        List<FileDto> files = ZipStreamerTest.getFileDtos(source, 3);
+        List<ArchiveFormat> formats = List.of(ZipStreamer.defaults(), TarArchive.of(TarCompression.GZIP),
+                TarArchive.builder().compression(TarCompression.LZ4).level(1).build());
+
+        assertThat(formats).extracting(ArchiveFormat::extension).containsExactly("zip", "tar.gz", "tar.lz4");
+        assertThat(ZipStreamerTest.readWithZipInputStream(write(formats.get(0), files))).isEqualTo(3);
+        assertThat(readTar(decompress(TarCompression.GZIP, write(formats.get(1), files)))).hasSize(3);
+        assertThat(readTar(decompress(TarCompression.LZ4, write(formats.get(2), files)))).hasSize(3);
+    }
+
+    @DisplayName("higher gzip and LZ4 levels trade speed for smaller archives")
+    @Test
+    void levels() throws IOException {
+        Path source = Files.write(dir.resolve("words.txt"), words(2_000_000));
+        List<FileDto> files = List.of(file("words.txt", source));
+
+        byte[] gzip1 = write(TarArchive.builder().level(1).build(), files);
+        byte[] gzip9 = write(TarArchive.builder().level(9).build(), files);
+        byte[] lz1 = write(TarArchive.builder().compression(TarCompression.LZ4).level(1).build(), files);
+        byte[] lz9 = write(TarArchive.builder().compression(TarCompression.LZ4).level(9).build(), files);
+
+        assertThat(gzip9.length).isLessThan(gzip1.length);
+        assertThat(lz9.length).isLessThan(lz1.length);
+        assertThat(lz9.length).isLessThan(2_000_000);
+        assertThat(gzip9.length).isLessThan(lz9.length);
+    }
+
+    @DisplayName("LZ4 frames round-trip empty, tiny, incompressible, repetitive and multi-block input")
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 9})
+    void lz4RoundTrip(int level) throws IOException {
+        byte[] overlapping = new byte[200_000];
+        Arrays.fill(overlapping, (byte) 'a');
+        List<byte[]> inputs = List.of(new byte[0], "tiny".getBytes(StandardCharsets.US_ASCII),
+                "0123456789abc".getBytes(StandardCharsets.US_ASCII), random(70_000, 3), overlapping, words(1_000_000));
+
+        for (byte[] input : inputs) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (OutputStream lz4 = new Lz4FrameOutputStream(out, level)) {
+                lz4.write(input, 0, input.length / 2);
+                for (int i = input.length / 2; i < input.length && i < input.length / 2 + 10; i++) {
+                    lz4.write(input[i]);
+                }
+                lz4.write(input, Math.min(input.length, input.length / 2 + 10),
+                        Math.max(0, input.length - input.length / 2 - 10));
+            }
+            byte[] decoded = new Lz4FrameInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes();
+            assertThat(decoded).isEqualTo(input);
+        }
+    }
+
+    @DisplayName("LZ4 frames match the reference encoding and corruption is detected")
+    @Test
+    void lz4Frame() throws IOException {
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        new Lz4FrameOutputStream(empty).close();
+        assertThat(HexFormat.of().formatHex(empty.toByteArray())).isEqualTo("04224d186440a700000000055dcc02");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream lz4 = new Lz4FrameOutputStream(out)) {
+            lz4.write(words(100_000));
+        }
+        byte[] corrupt = out.toByteArray();
+        corrupt[corrupt.length / 2] ^= 0x55;
+        assertThatThrownBy(() -> new Lz4FrameInputStream(new ByteArrayInputStream(corrupt)).readAllBytes())
+                .isInstanceOf(IOException.class);
+    }
+
+    private byte[] write(ArchiveFormat format, List<FileDto> files) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        format.write(files, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(TarCompression compression, byte[] archive) throws IOException {
+        InputStream in = new ByteArrayInputStream(archive);
+        return switch (compression) {
+            case NONE -> archive;
+            case GZIP -> new GZIPInputStream(in).readAllBytes();
+            case LZ4 -> new Lz4FrameInputStream(in).readAllBytes();
+        };
+    }
+
+    // just enough of a tar reader for what TarArchive writes: ustar plus PAX path records
+    private static Map<String, byte[]> readTar(byte[] tar) {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        String paxPath = null;
+        int position = 0;
+        while (tar[position] != 0) {
+            String name = field(tar, position, 100);
+            long size = Long.parseLong(field(tar, position + 124, 12).trim(), 8);
+            byte type = tar[position + 156];
+            byte[] body = Arrays.copyOfRange(tar, position + 512, position + 512 + (int) size);
+            position += 512 + (int) ((size + 511) / 512 * 512);
+            if (type == 'x') {
+                for (String record : new String(body, StandardCharsets.UTF_8).split("\n")) {
+                    String keyValue = record.substring(record.indexOf(' ') + 1);
+                    if (keyValue.startsWith("path=")) {
+                        paxPath = keyValue.substring(5);
+                    }
+                }
+                continue;
+            }
+            entries.put(paxPath != null ? paxPath : name, body);
+            paxPath = null;
+        }
+        assertThat(tar.length - position).isGreaterThanOrEqualTo(1024);
+        return entries;
+    }
+
+    private static String field(byte[] tar, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && tar[end] != 0) {
+            end++;
+        }
+        return new String(tar, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static FileDto file(String name, Path path) {
+        return FileDto.builder().name(name).url(path.toString()).build();
+    }
+
+    private static byte[] random(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] words(int size) {
+        String[] pool = {"this ", "is ", "a ", "sweet ", "potato ", "and ", "another ", "archive "};
+        Random random = new Random(4);
+        StringBuilder text = new StringBuilder(size + 16);
+        while (text.length() < size) {
+            text.append(pool[random.nextInt(pool.length)]);
+        }
+        return text.substring(0, size).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,106 @@
+package stream;
+
+import org.example.ArchiveLayout;
+import org.example.FileDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ArchiveLayoutTest {
+
+    @TempDir
+    Path dir;
+
+    @DisplayName("the whole archive is a valid zip and its size is known up front")
+    @Test
+    void whenWrittenWhole_thenIsValidZip() throws IOException {
+        List<FileDto> fileDtos = fixtures();
+        ArchiveLayout layout = ArchiveLayout.of(fileDtos);
+
+        byte[] archive = range(layout, 0, layout.size());
+        Path zip = Files.write(dir.resolve("whole.zip"), archive);
+
+        assertThat((long) archive.length).isEqualTo(layout.size());
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            assertThat(zipFile.size()).isEqualTo(fileDtos.size());
+            for (FileDto fileDto : fileDtos) {
+                assertThat(zipFile.getInputStream(zipFile.getEntry(fileDto.getName())).readAllBytes())
+                        .isEqualTo(Files.readAllBytes(fileDto.path()));
+            }
+        }
+    }
+
+    @DisplayName("a download resumed at any offset yields the same bytes")
+    @Test
+    void whenResumedAtAnyOffset_thenBytesMatch() throws IOException {
+        List<FileDto> fileDtos = fixtures();
+        ArchiveLayout layout = ArchiveLayout.of(fileDtos);
+        byte[] whole = range(layout, 0, layout.size());
+
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            long start = random.nextInt((int) layout.size());
+            long end = start + random.nextInt((int) (layout.size() - start) + 1);
+            byte[] part = range(layout, start, end);
+            byte[] expected = new byte[(int) (end - start)];
+            System.arraycopy(whole, (int) start, expected, 0, expected.length);
+            assertThat(part).isEqualTo(expected);
+        }
+    }
+
+    @DisplayName("the same unchanged sources give the same layout and etag")
+    @Test
+    void whenLaidOutAgain_thenIsDeterministic() throws IOException {
+        List<FileDto> fileDtos = fixtures();
+        ArchiveLayout first = ArchiveLayout.of(fileDtos);
+        ArchiveLayout second = ArchiveLayout.of(fileDtos);
+
+        assertThat(second.etag()).isEqualTo(first.etag());
+        assertThat(range(second, 0, second.size())).isEqualTo(range(first, 0, first.size()));
+    }
+
+    @DisplayName("a source changed after layout fails instead of serving a corrupt range")
+    @Test
+    void whenSourceChanged_thenThrows() throws IOException {
+        List<FileDto> fileDtos = fixtures();
+        ArchiveLayout layout = ArchiveLayout.of(fileDtos);
+        Path first = fileDtos.get(0).path();
+        Files.write(first, new byte[]{1, 2, 3});
+        Files.setLastModifiedTime(first, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+
+        assertThatThrownBy(() -> range(layout, 0, layout.size())).isInstanceOf(IOException.class);
+    }
+
+    private List<FileDto> fixtures() throws IOException {
+        return List.of(
+                FileDto.builder().name("a.bin").url(createFile("a.bin", 70_000).toString()).build(),
+                FileDto.builder().name("empty.bin").url(createFile("empty.bin", 0).toString()).build(),
+                FileDto.builder().name("nested/b.bin").url(createFile("b.bin", 12_345).toString()).build()
+        );
+    }
+
+    private static byte[] range(ArchiveLayout layout, long start, long end) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        layout.write(start, end, Channels.newChannel(bos));
+        return bos.toByteArray();
+    }
+
+    private Path createFile(String filename, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return Files.write(dir.resolve(filename), bytes);
+    }
+}
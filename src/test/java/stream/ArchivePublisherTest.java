@@ -0,0 +1,161 @@
+package stream;
+
+import org.example.EntryMethod;
+import org.example.FileDto;
+import org.example.ZipStreamer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ArchivePublisherTest {
+
+    private static final int CHUNK = 8 * 1024;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @DisplayName("chunks requested one by one form a valid archive")
+    @Test
+    void whenRequestedOneByOne_thenPublishesWholeArchive() throws Exception {
+        Path text = createFile("a.txt", 100 * 1024);
+        Path image = createFile("b.jpg", 50 * 1024);
+        List<FileDto> fileDtos = List.of(
+                FileDto.builder().name("a.txt").url(text.toString()).build(),
+                FileDto.builder().name("b.jpg").url(image.toString()).build()
+        );
+        CollectingSubscriber subscriber = new CollectingSubscriber(1);
+
+        ZipStreamer.builder().bufferSize(CHUNK).method(EntryMethod.AUTO).build()
+                .publisher(fileDtos, executor)
+                .subscribe(subscriber);
+
+        byte[] archive = subscriber.done.get(10, TimeUnit.SECONDS);
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            assertThat(zis.getNextEntry().getName()).isEqualTo("a.txt");
+            assertThat(zis.readAllBytes()).isEqualTo(Files.readAllBytes(text));
+            assertThat(zis.getNextEntry().getName()).isEqualTo("b.jpg");
+            assertThat(zis.readAllBytes()).isEqualTo(Files.readAllBytes(image));
+            assertThat(zis.getNextEntry()).isNull();
+        }
+    }
+
+    @DisplayName("no chunk is produced beyond what the subscriber requested")
+    @Test
+    void whenDemandIsExhausted_thenStopsProducing() throws Exception {
+        Path source = createFile("a.bin", 200 * 1024);
+        List<FileDto> fileDtos = List.of(FileDto.builder().name("a.bin").url(source.toString()).build());
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+
+        ZipStreamer.builder().bufferSize(CHUNK).method(EntryMethod.STORED).build()
+                .publisher(fileDtos, executor)
+                .subscribe(subscriber);
+        subscriber.subscription.request(3);
+        Thread.sleep(200);
+
+        assertThat(subscriber.chunks.get()).isEqualTo(3);
+        assertThat(subscriber.done).isNotDone();
+
+        subscriber.subscription.cancel();
+        Thread.sleep(100);
+        assertThat(subscriber.chunks.get()).isEqualTo(3);
+    }
+
+    @DisplayName("a central directory larger than a chunk is split across chunks")
+    @Test
+    void whenManyEntries_thenDirectoryIsChunked() throws Exception {
+        int count = 2000;
+        List<FileDto> fileDtos = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path source = createFile("f" + i + ".txt", 16);
+            fileDtos.add(FileDto.builder().name("entry-" + i + ".txt").url(source.toString()).build());
+        }
+        CollectingSubscriber subscriber = new CollectingSubscriber(1);
+
+        ZipStreamer.builder().bufferSize(1024).method(EntryMethod.STORED).build()
+                .publisher(fileDtos, executor)
+                .subscribe(subscriber);
+
+        byte[] archive = subscriber.done.get(30, TimeUnit.SECONDS);
+        Path zip = Files.write(dir.resolve("out.zip"), archive);
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            assertThat(zipFile.size()).isEqualTo(count);
+            assertThat(zipFile.getEntry("entry-1999.txt").getSize()).isEqualTo(16);
+        }
+        assertThat(subscriber.chunks.get()).isEqualTo((archive.length + 1023) / 1024);
+    }
+
+    private Path createFile(String filename, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return Files.write(dir.resolve(filename), bytes);
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<ByteBuffer> {
+        private final int batch;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final AtomicInteger chunks = new AtomicInteger();
+        private final CompletableFuture<byte[]> done = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+
+        private CollectingSubscriber(int batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (batch > 0) {
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            chunks.incrementAndGet();
+            byte[] chunk = new byte[item.remaining()];
+            item.get(chunk);
+            bytes.writeBytes(chunk);
+            if (batch > 0) {
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(bytes.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package stream;
+
+import org.example.ArchiveScheduler;
+import org.example.Dedupe;
+import org.example.FileDto;
+import org.example.ZipStreamer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ArchiveSchedulerTest {
+
+    @TempDir
+    Path dir;
+
+    @DisplayName("footprint counts pooled buffers, zlib state and parallel or prefetch buffers")
+    @Test
+    void footprint() {
+        ZipStreamer sequential = ZipStreamer.defaults();
+        ZipStreamer parallel = ZipStreamer.builder().parallelism(4).build();
+        ZipStreamer prefetching = ZipStreamer.builder().prefetchDepth(2).prefetchBudget(1024 * 1024).build();
+
+        assertThat(sequential.footprint()).isBetween(2L * 64 * 1024 + 256 * 1024, 1024L * 1024);
+        assertThat(parallel.footprint()).isGreaterThan(sequential.footprint() + 8L * 128 * 1024);
+        assertThat(prefetching.footprint()).isEqualTo(sequential.footprint() + 1024 * 1024);
+    }
+
+    @DisplayName("footprint of a job grows with its entries, more so with REPLAY")
+    @Test
+    void footprintCountsEntries() {
+        ZipStreamer plain = ZipStreamer.defaults();
+        ZipStreamer replay = ZipStreamer.builder().dedupe(Dedupe.REPLAY).build();
+        List<FileDto> files = ZipStreamerTest.getFileDtos(dir.resolve("source.bin"), 100_000);
+
+        long perEntry = (plain.footprint(files) - plain.footprint()) / files.size();
+        assertThat(perEntry).isBetween(100L, 200L);
+        assertThat(replay.footprint(files) - replay.footprint()).isGreaterThan(3 * perEntry * files.size());
+        assertThat(plain.footprint(List.of())).isEqualTo(plain.footprint());
+
+        CompletableFuture<Void> rejected = ArchiveScheduler.builder().budget(plain.footprint() * 2).build()
+                .submit(plain, files, new ByteArrayOutputStream());
+        assertThat(rejected).isCompletedExceptionally();
+    }
+
+    @DisplayName("running jobs never reserve more than the budget and all of them finish")
+    @Test
+    void staysWithinBudget() throws Exception {
+        List<FileDto> files = ZipStreamerTest.getFileDtos(createFile(256 * 1024), 4);
+        ZipStreamer streamer = ZipStreamer.defaults();
+        AtomicReference<ArchiveScheduler> scheduler = new AtomicReference<>();
+        AtomicLong peak = new AtomicLong();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        scheduler.set(ArchiveScheduler.builder()
+                .budget(2 * streamer.footprint(files))
+                .degrade(false)
+                .executor(task -> {
+                    peak.accumulateAndGet(scheduler.get().reserved(), Math::max);
+                    threads.execute(task);
+                })
+                .build());
+        try {
+            List<ByteArrayOutputStream> outs = new ArrayList<>();
+            List<CompletableFuture<Void>> jobs = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                outs.add(out);
+                jobs.add(scheduler.get().submit(streamer, files, out));
+            }
+            CompletableFuture.allOf(jobs.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+
+            assertThat(peak.get()).isEqualTo(2 * streamer.footprint(files));
+            assertThat(scheduler.get().reserved()).isZero();
+            assertThat(scheduler.get().queued()).isZero();
+            for (ByteArrayOutputStream out : outs) {
+                assertThat(entries(out.toByteArray())).isEqualTo(4);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @DisplayName("queued jobs start in the order they were submitted")
+    @Test
+    void firstInFirstOut() throws Exception {
+        List<FileDto> files = ZipStreamerTest.getFileDtos(createFile(16 * 1024), 1);
+        ZipStreamer streamer = ZipStreamer.defaults();
+        ExecutorService threads = Executors.newCachedThreadPool();
+        ArchiveScheduler scheduler = ArchiveScheduler.builder()
+                .budget(streamer.footprint(files))
+                .executor(threads)
+                .build();
+        List<Integer> started = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<CompletableFuture<Void>> jobs = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                int job = i;
+                // the first write comes from the running job; completion order is not start order
+                OutputStream out = new ByteArrayOutputStream() {
+                    @Override
+                    public synchronized void write(byte[] b, int off, int len) {
+                        if (count == 0) {
+                            started.add(job);
+                        }
+                        super.write(b, off, len);
+                    }
+                };
+                jobs.add(scheduler.submit(streamer, files, out));
+            }
+            CompletableFuture.allOf(jobs.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+
+            assertThat(started).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @DisplayName("a job too large for the budget is degraded, or rejected when degrading is off")
+    @Test
+    void degradesOrRejects() throws Exception {
+        List<FileDto> files = ZipStreamerTest.getFileDtos(createFile(512 * 1024), 3);
+        ZipStreamer parallel = ZipStreamer.builder().parallelism(4).build();
+        long budget = ZipStreamer.defaults().footprint(files);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArchiveScheduler.builder().budget(budget).build()
+                .submit(parallel, files, out)
+                .get(60, TimeUnit.SECONDS);
+        assertThat(entries(out.toByteArray())).isEqualTo(3);
+
+        CompletableFuture<Void> rejected = ArchiveScheduler.builder().budget(budget).degrade(false).build()
+                .submit(parallel, files, new ByteArrayOutputStream());
+        assertThatThrownBy(rejected::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+
+        CompletableFuture<Void> tooSmall = ArchiveScheduler.builder().budget(64 * 1024).build()
+                .submit(parallel, files, new ByteArrayOutputStream());
+        assertThat(tooSmall).isCompletedExceptionally();
+    }
+
+    @DisplayName("jobs reuse the direct buffers of finished ones instead of allocating their own")
+    @Test
+    void reusesDirectBuffers() throws Exception {
+        List<FileDto> files = ZipStreamerTest.getFileDtos(createFile(256 * 1024), 2);
+        ZipStreamer streamer = ZipStreamer.builder().parallelism(2).build();
+        ArchiveScheduler scheduler = ArchiveScheduler.builder()
+                .budget(streamer.footprint(files))
+                .executor(Runnable::run)
+                .build();
+
+        scheduler.submit(streamer, files, new ByteArrayOutputStream()).get(60, TimeUnit.SECONDS);
+        long allocated = scheduler.buffers().allocated();
+        for (int i = 0; i < 5; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            scheduler.submit(streamer, files, out).get(60, TimeUnit.SECONDS);
+            assertThat(entries(out.toByteArray())).isEqualTo(2);
+        }
+
+        assertThat(allocated).isPositive().isLessThanOrEqualTo(streamer.footprint());
+        assertThat(scheduler.buffers().allocated()).isEqualTo(allocated);
+        assertThat(scheduler.buffers().retained()).isEqualTo(allocated);
+    }
+
+    @DisplayName("a failing job completes exceptionally and returns its reservation")
+    @Test
+    void failureReleasesBudget() {
+        ArchiveScheduler scheduler = ArchiveScheduler.builder().executor(Runnable::run).build();
+        List<FileDto> missing = List.of(FileDto.builder().name("missing").url(dir.resolve("missing").toString()).build());
+
+        CompletableFuture<Void> job = scheduler.submit(ZipStreamer.defaults(), missing, new ByteArrayOutputStream());
+
+        assertThat(job).isCompletedExceptionally();
+        assertThat(scheduler.reserved()).isZero();
+    }
+
+    private static int entries(byte[] archive) throws Exception {
+        int count = 0;
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                zis.readAllBytes();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Path createFile(int size) throws Exception {
+        byte[] bytes = new byte[size];
+        new Random(3).nextBytes(bytes);
+        return Files.write(dir.resolve("source-" + size + ".bin"), bytes);
+    }
+}
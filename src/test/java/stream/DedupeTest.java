@@ -0,0 +1,157 @@
+package stream;
+
+import org.example.Dedupe;
+import org.example.EntryMethod;
+import org.example.FileDto;
+import org.example.ZipMetrics;
+import org.example.ZipStreamer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class DedupeTest {
+
+    private static final int SIZE = 256 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @DisplayName("REPLAY only shares bodies whose content matches, not just their size")
+    @Test
+    void whenSameSizeDifferentContent_thenBothWritten() throws IOException {
+        Path a = createFile("a.bin", 1);
+        Path b = createFile("b.bin", 2);
+        List<FileDto> fileDtos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            fileDtos.add(FileDto.builder().name("a " + i + ".txt").url(a.toString()).build());
+            fileDtos.add(FileDto.builder().name("b " + i + ".mp4").url(b.toString()).build());
+        }
+
+        Path archive = write(ZipStreamer.builder().dedupe(Dedupe.REPLAY).method(EntryMethod.AUTO).build(), fileDtos,
+                "mixed.zip");
+
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            assertThat(zipFile.size()).isEqualTo(6);
+            for (int i = 0; i < 3; i++) {
+                assertThat(zipFile.getInputStream(zipFile.getEntry("a " + i + ".txt")).readAllBytes())
+                        .isEqualTo(Files.readAllBytes(a));
+                assertThat(zipFile.getInputStream(zipFile.getEntry("b " + i + ".mp4")).readAllBytes())
+                        .isEqualTo(Files.readAllBytes(b));
+            }
+        }
+        assertThat(localNames(archive)).isEqualTo(centralNames(archive));
+    }
+
+    @DisplayName("REPLAY deflates repeated content once and leaves a plain, streamable archive")
+    @Test
+    void whenReplay_thenSameArchiveAsPlain() throws IOException {
+        Path source = createFile("source.bin", 1);
+        List<FileDto> fileDtos = ZipStreamerTest.getFileDtos(source, 10);
+
+        Path plain = write(ZipStreamer.defaults(), fileDtos, "plain.zip");
+        ZipMetrics metrics = new ZipMetrics();
+        Path replayed = write(ZipStreamer.builder().dedupe(Dedupe.REPLAY).parallelism(2).metrics(metrics).build(),
+                fileDtos, "replayed.zip");
+
+        ZipStreamerTest.assertArchive(replayed, fileDtos, source);
+        assertThat(metrics.getCachedEntries()).isEqualTo(9);
+        assertThat(localNames(replayed)).isEqualTo(centralNames(replayed));
+        assertThat((double) Files.size(replayed)).isCloseTo(Files.size(plain), within(Files.size(plain) * 0.01));
+        assertThat(bodiesExist()).isFalse();
+    }
+
+    @DisplayName("REPLAY compresses a file bundled twice once and copies its body for the second")
+    @Test
+    void whenReplayTwoCopies_thenCompressedOnce() throws IOException {
+        Path source = createFile("source.bin", 1);
+        List<FileDto> fileDtos = ZipStreamerTest.getFileDtos(source, 2);
+
+        ZipMetrics metrics = new ZipMetrics();
+        Path replayed = write(ZipStreamer.builder().dedupe(Dedupe.REPLAY).metrics(metrics).build(), fileDtos,
+                "replayed.zip");
+
+        ZipStreamerTest.assertArchive(replayed, fileDtos, source);
+        assertThat(metrics.getEntries()).isEqualTo(2);
+        assertThat(metrics.getCachedEntries()).isEqualTo(1);
+    }
+
+    @DisplayName("REPLAY compresses every source of distinct content, even at equal sizes")
+    @Test
+    void whenReplayWithoutRepeats_thenNothingCopied() throws IOException {
+        List<FileDto> fileDtos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Path source = Files.write(dir.resolve(i + ".bin"), new byte[SIZE + i]);
+            fileDtos.add(FileDto.builder().name(i + ".bin").url(source.toString()).build());
+        }
+        for (int seed = 3; seed < 5; seed++) {
+            Path source = createFile(seed + ".random", seed);
+            fileDtos.add(FileDto.builder().name(seed + ".random").url(source.toString()).build());
+        }
+
+        ZipMetrics metrics = new ZipMetrics();
+        Path replayed = write(ZipStreamer.builder().dedupe(Dedupe.REPLAY).metrics(metrics).build(), fileDtos,
+                "replayed.zip");
+
+        assertThat(metrics.getCachedEntries()).isZero();
+        // the same compressed bodies as without dedupe, only timestamps may differ
+        assertThat(Files.size(replayed)).isEqualTo(Files.size(write(ZipStreamer.defaults(), fileDtos, "plain.zip")));
+        try (ZipFile zipFile = new ZipFile(replayed.toFile())) {
+            for (FileDto fileDto : fileDtos) {
+                assertThat(zipFile.getInputStream(zipFile.getEntry(fileDto.getName())).readAllBytes())
+                        .isEqualTo(Files.readAllBytes(fileDto.path()));
+            }
+        }
+        assertThat(bodiesExist()).isFalse();
+    }
+
+    private static boolean bodiesExist() throws IOException {
+        try (var temporary = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return temporary.anyMatch(p -> p.getFileName().toString().startsWith("zip-bodies-"));
+        }
+    }
+
+    private static List<String> localNames(Path archive) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+
+    private static List<String> centralNames(Path archive) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            return zipFile.stream().map(ZipEntry::getName).toList();
+        }
+    }
+
+    private Path write(ZipStreamer streamer, List<FileDto> fileDtos, String name) throws IOException {
+        Path archive = dir.resolve(name);
+        try (OutputStream os = Files.newOutputStream(archive)) {
+            streamer.write(fileDtos, os);
+        }
+        return archive;
+    }
+
+    private Path createFile(String name, long seed) throws IOException {
+        byte[] bytes = new byte[SIZE];
+        new Random(seed).nextBytes(bytes);
+        return Files.write(dir.resolve(name), bytes);
+    }
+}
@@ -0,0 +1,134 @@
+package stream;
+
+import org.example.EntryCache;
+import org.example.FileDto;
+import org.example.ZipStreamer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EntryCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @DisplayName("the second archive splices the cached bodies instead of deflating again")
+    @Test
+    void whenSameContentAgain_thenHits() throws IOException {
+        List<FileDto> fileDtos = fixtures();
+        EntryCache cache = new EntryCache(dir.resolve("cache"), 10 * 1024 * 1024);
+        ZipStreamer streamer = ZipStreamer.builder().cache(cache).build();
+
+        // c.txt has the same content as b.txt, so it already hits in the first archive
+        byte[] first = write(streamer, fileDtos);
+        assertThat(cache.misses()).isEqualTo(2);
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(2);
+
+        byte[] second = write(streamer, fileDtos);
+        assertThat(cache.misses()).isEqualTo(2);
+        assertThat(cache.hits()).isEqualTo(4);
+
+        assertEntries(first, fileDtos);
+        assertEntries(second, fileDtos);
+    }
+
+    @DisplayName("cached bodies are shared between sequential and parallel streamers and survive a restart")
+    @Test
+    void whenCacheReopened_thenEntriesAreStillThere() throws IOException {
+        List<FileDto> fileDtos = fixtures();
+        Path cacheDir = dir.resolve("cache");
+        write(ZipStreamer.builder().cache(new EntryCache(cacheDir, 10 * 1024 * 1024)).build(), fileDtos);
+
+        EntryCache reopened = new EntryCache(cacheDir, 10 * 1024 * 1024);
+        byte[] archive = write(ZipStreamer.builder().cache(reopened).parallelism(3).chunkSize(16 * 1024).build(), fileDtos);
+
+        assertThat(reopened.size()).isEqualTo(2);
+        assertThat(reopened.hits()).isEqualTo(3);
+        assertEntries(archive, fileDtos);
+    }
+
+    @DisplayName("least recently used bodies are evicted beyond the byte budget")
+    @Test
+    void whenOverBudget_thenEvicts() throws IOException {
+        List<FileDto> fileDtos = List.of(
+                FileDto.builder().name("a.bin").url(createFile("a.bin", 60 * 1024, true).toString()).build(),
+                FileDto.builder().name("b.bin").url(createFile("b.bin", 61 * 1024, true).toString()).build(),
+                FileDto.builder().name("a again").url(dir.resolve("a.bin").toString()).build()
+        );
+        // room for one incompressible body, not two
+        EntryCache cache = new EntryCache(dir.resolve("cache"), 100 * 1024);
+
+        byte[] archive = write(ZipStreamer.builder().cache(cache).build(), fileDtos);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.evictions()).isEqualTo(2);
+        assertThat(cache.misses()).isEqualTo(3);
+        assertThat(cache.bytes()).isLessThanOrEqualTo(100 * 1024);
+        assertEntries(archive, fileDtos);
+    }
+
+    @DisplayName("bodies left pending by a crash are deleted on start")
+    @Test
+    void whenPendingLeftOver_thenDeletedOnStart() throws IOException {
+        Path cacheDir = Files.createDirectories(dir.resolve("cache"));
+        Path leftover = Files.write(cacheDir.resolve("pending-123.tmp"), new byte[64 * 1024]);
+        Path unrelated = Files.write(cacheDir.resolve("notes.txt"), new byte[10]);
+
+        EntryCache cache = new EntryCache(cacheDir, 10 * 1024 * 1024);
+
+        assertThat(leftover).doesNotExist();
+        assertThat(unrelated).exists();
+        assertThat(cache.bytes()).isZero();
+    }
+
+    private List<FileDto> fixtures() throws IOException {
+        Path random = createFile("a.bin", 100 * 1024, true);
+        Path text = createFile("b.txt", 200 * 1024, false);
+        Path copy = Files.copy(text, dir.resolve("c.txt"));
+        return List.of(
+                FileDto.builder().name("a.bin").url(random.toString()).build(),
+                FileDto.builder().name("b.txt").url(text.toString()).build(),
+                FileDto.builder().name("c.txt").url(copy.toString()).build()
+        );
+    }
+
+    private static byte[] write(ZipStreamer streamer, List<FileDto> fileDtos) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        streamer.write(fileDtos, bos);
+        return bos.toByteArray();
+    }
+
+    private static void assertEntries(byte[] archive, List<FileDto> fileDtos) throws IOException {
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (FileDto fileDto : fileDtos) {
+                assertThat(zis.getNextEntry().getName()).isEqualTo(fileDto.getName());
+                assertThat(zis.readAllBytes()).isEqualTo(Files.readAllBytes(fileDto.path()));
+            }
+            assertThat(zis.getNextEntry()).isNull();
+        }
+    }
+
+    private Path createFile(String filename, int size, boolean random) throws IOException {
+        byte[] bytes = new byte[size];
+        if (random) {
+            new Random(size).nextBytes(bytes);
+        } else {
+            for (int i = 0; i < size; i++) {
+                bytes[i] = (byte) ('a' + i % 7);
+            }
+        }
+        return Files.write(dir.resolve(filename), bytes);
+    }
+}
@@ -0,0 +1,154 @@
+package stream;
+
+import org.example.stream.FileRecords;
+import org.example.stream.IntStats;
+import org.example.stream.PrimitiveCollectors;
+import org.example.stream.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FileRecordsTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Small windows and splits so that a test-sized file is cut into many chunks and lines
+     * straddle window ends.
+     */
+    private static final FileRecords SMALL = FileRecords.builder().window(4096).minSplit(1024).build();
+
+    private Path writeProducts(int count, String separator) throws IOException {
+        Path file = dir.resolve("products.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                writer.write((char) ('A' + i % 4) + "-" + i + ",2024" + String.format("%04d", 101 + i % 28) + "," + i % 5000);
+                writer.write(separator);
+            }
+        }
+        return file;
+    }
+
+    @DisplayName("parallel reduction over a file matches a sequential read")
+    @Test
+    void parallelMatchesSequential() throws IOException {
+        Path file = writeProducts(100_000, "\n");
+
+        IntStats parallel;
+        try (Stream<Product> products = SMALL.lines(file, Product.CSV)) {
+            parallel = products.parallel().collect(PrimitiveCollectors.intStats(Product::price));
+        }
+        IntStats sequential;
+        try (Stream<Product> products = SMALL.lines(file, Product.CSV)) {
+            sequential = products.collect(PrimitiveCollectors.intStats(Product::price));
+        }
+
+        assertThat(parallel.getCount()).isEqualTo(100_000);
+        assertThat(parallel.getSum()).isEqualTo(sequential.getSum());
+        assertThat(parallel.getMax()).isEqualTo(4999);
+    }
+
+    @DisplayName("every record is read exactly once and in order across splits")
+    @Test
+    void splitsOnRecordBoundaries() throws IOException {
+        Path file = writeProducts(20_000, "\r\n");
+
+        try (Stream<Product> products = SMALL.lines(file, Product.CSV)) {
+            List<String> ids = products.parallel().map(Product::id).toList();
+
+            assertThat(ids).hasSize(20_000);
+            assertThat(ids.get(0)).isEqualTo("A-0");
+            assertThat(ids.get(19_999)).isEqualTo("D-19999");
+            assertThat(ids).doesNotHaveDuplicates();
+        }
+    }
+
+    @DisplayName("splits halve the remaining bytes")
+    @Test
+    void balancedSplits() throws IOException {
+        Path file = writeProducts(20_000, "\n");
+
+        try (Stream<Product> products = SMALL.lines(file, Product.CSV)) {
+            Spliterator<Product> right = products.spliterator();
+            Spliterator<Product> left = right.trySplit();
+
+            assertThat(left).isNotNull();
+            long leftCount = StreamSupport.stream(left, false).count();
+            long rightCount = StreamSupport.stream(right, false).count();
+            // halves are balanced by bytes; later ids are a few characters longer
+            assertThat(leftCount + rightCount).isEqualTo(20_000);
+            assertThat(Math.abs(leftCount - rightCount)).isLessThan(1_000);
+        }
+    }
+
+    @DisplayName("groups the MapCollectTest fixture read from a file")
+    @Test
+    void groupFromFile() throws IOException {
+        Path file = dir.resolve("fixture.csv");
+        Files.writeString(file, "A-1,20240101,1500\nB-1,20250101,3000\nC-1,20230101,4000\n\n"
+                + "A-2,20230101,2000\nD-1,20230101,3000\nA-3,20240101,1000");
+
+        try (Stream<Product> products = FileRecords.defaults().lines(file, Product.CSV)) {
+            Map<String, List<Product>> result = products.parallel()
+                    .collect(Collectors.groupingBy(p -> String.valueOf(p.id().charAt(0))));
+
+            assertThat(result.get("A")).extracting(Product::price).containsExactly(1500, 2000, 1000);
+            assertThat(result).containsOnlyKeys("A", "B", "C", "D");
+        }
+    }
+
+    @DisplayName("fixed-width records form a sized stream")
+    @Test
+    void fixedWidth() throws IOException {
+        Path file = dir.resolve("fixed.dat");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            content.append(String.format("%08d", i));
+        }
+        Files.writeString(file, content);
+
+        try (Stream<Integer> values = SMALL.fixedWidth(file, 8,
+                (buffer, from, to) -> Integer.parseInt(StandardCharsets.US_ASCII.decode(buffer.slice(from, to - from)).toString()))) {
+            Spliterator<Integer> spliterator = values.spliterator();
+            assertThat(spliterator.getExactSizeIfKnown()).isEqualTo(10_000);
+            assertThat(StreamSupport.stream(spliterator, true).mapToLong(Integer::longValue).sum())
+                    .isEqualTo(10_000L * 9_999 / 2);
+        }
+
+        Files.writeString(file, "123");
+        assertThatThrownBy(() -> SMALL.fixedWidth(file, 8, (buffer, from, to) -> from)).isInstanceOf(IOException.class);
+    }
+
+    @DisplayName("a line longer than the window and a malformed line are reported")
+    @Test
+    void badRecords() throws IOException {
+        Path file = dir.resolve("long.csv");
+        Files.writeString(file, "A-1," + "9".repeat(5000) + ",1\n");
+
+        try (Stream<Product> products = SMALL.lines(file, Product.CSV)) {
+            assertThatThrownBy(products::count).isInstanceOf(UncheckedIOException.class);
+        }
+
+        Files.writeString(file, "A-1,20240101,cheap\n");
+        try (Stream<Product> products = SMALL.lines(file, Product.CSV)) {
+            assertThatThrownBy(products::toList).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
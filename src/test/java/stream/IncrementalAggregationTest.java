@@ -0,0 +1,186 @@
+package stream;
+
+import org.example.stream.Product;
+import org.example.stream.ProductAggregator;
+import org.example.stream.RetractableStats;
+import org.example.stream.SlidingWindow;
+import org.example.stream.Totals;
+import org.example.stream.TumblingWindow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IncrementalAggregationTest {
+
+    private static Totals totals(IntSummaryStatistics stats) {
+        return stats.getCount() == 0 ? Totals.EMPTY
+                : new Totals(stats.getCount(), stats.getSum(), stats.getMin(), stats.getMax());
+    }
+
+    @DisplayName("sliding window matches recomputing from scratch")
+    @Test
+    void slidingWindowMatchesRecompute() {
+        Random random = new Random(3);
+        SlidingWindow window = new SlidingWindow(50);
+        long[] times = new long[20_000];
+        int[] values = new int[times.length];
+        long time = 0;
+        for (int i = 0; i < times.length; i++) {
+            time += random.nextInt(3);
+            times[i] = time;
+            values[i] = random.nextInt(1_000) - 500;
+            window.add(time, values[i]);
+
+            if (i % 97 == 0) {
+                long cutoff = time - 50;
+                IntSummaryStatistics expected = IntStream.rangeClosed(0, i)
+                        .filter(j -> times[j] > cutoff)
+                        .map(j -> values[j])
+                        .summaryStatistics();
+                assertThat(window.totals()).isEqualTo(totals(expected));
+            }
+        }
+
+        window.advanceTo(time + 50);
+        assertThat(window.totals()).isEqualTo(Totals.EMPTY);
+        long last = time + 50;
+        assertThatThrownBy(() -> window.add(last - 1, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("removing from a sliding window matches recomputing without the removed values")
+    @Test
+    void slidingWindowRemoveMatchesRecompute() {
+        Random random = new Random(5);
+        SlidingWindow window = new SlidingWindow(30);
+        long[] times = new long[5_000];
+        int[] values = new int[times.length];
+        boolean[] removed = new boolean[times.length];
+        long time = 0;
+        for (int i = 0; i < times.length; i++) {
+            time += random.nextInt(2);
+            times[i] = time;
+            values[i] = random.nextInt(100);
+            window.add(time, values[i]);
+
+            int victim = i - random.nextInt(Math.min(i + 1, 40));
+            if (!removed[victim] && random.nextInt(3) == 0) {
+                boolean inWindow = times[victim] > time - 30;
+                assertThat(window.remove(times[victim], values[victim])).isEqualTo(inWindow);
+                removed[victim] = inWindow;
+            }
+
+            long cutoff = time - 30;
+            IntSummaryStatistics expected = IntStream.rangeClosed(0, i)
+                    .filter(j -> times[j] > cutoff && !removed[j])
+                    .map(j -> values[j])
+                    .summaryStatistics();
+            assertThat(window.totals()).isEqualTo(totals(expected));
+        }
+
+        long last = time;
+        assertThatThrownBy(() -> window.remove(last, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("tumbling windows close as time moves on")
+    @Test
+    void tumblingWindows() {
+        List<TumblingWindow.Window> closed = new ArrayList<>();
+        TumblingWindow window = new TumblingWindow(10, closed::add);
+
+        window.add(1, 5);
+        window.add(9, 7);
+        window.add(10, 1);
+        window.add(35, 4);
+        window.add(36, 2);
+        assertThat(window.current()).isEqualTo(new Totals(2, 6, 2, 4));
+        window.flush();
+
+        assertThat(closed).containsExactly(
+                new TumblingWindow.Window(0, 10, new Totals(2, 12, 5, 7)),
+                new TumblingWindow.Window(10, 20, new Totals(1, 1, 1, 1)),
+                new TumblingWindow.Window(30, 40, new Totals(2, 6, 2, 4)));
+        assertThatThrownBy(() -> window.add(5, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("retracting values restores min and max")
+    @Test
+    void retraction() {
+        RetractableStats stats = new RetractableStats();
+        stats.add(100);
+        stats.add(400);
+        stats.add(400);
+        stats.add(200);
+
+        stats.remove(400);
+        assertThat(stats.totals()).isEqualTo(new Totals(3, 700, 100, 400));
+        stats.remove(400);
+        stats.remove(100);
+        assertThat(stats.totals()).isEqualTo(new Totals(1, 200, 200, 200));
+        stats.remove(200);
+        assertThat(stats.totals()).isEqualTo(Totals.EMPTY);
+        assertThatThrownBy(() -> stats.remove(200)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("aggregator keeps all-time and windowed totals per prefix")
+    @Test
+    void aggregator() {
+        ProductAggregator<Character> aggregator = new ProductAggregator<>(p -> p.id().charAt(0), 7);
+
+        aggregator.add(new Product("A-1", "20240101", 1500));
+        aggregator.add(new Product("B-1", "20240102", 3000));
+        aggregator.add(new Product("A-2", "20240105", 2000));
+        aggregator.add(new Product("A-3", "20240110", 1000));
+
+        assertThat(aggregator.totals('A')).isEqualTo(new Totals(3, 4500, 1000, 2000));
+        assertThat(aggregator.windowTotals('A')).isEqualTo(new Totals(2, 3000, 1000, 2000));
+        assertThat(aggregator.windowTotals('B')).isEqualTo(Totals.EMPTY);
+
+        aggregator.retract(new Product("A-2", "20240105", 2000));
+        assertThat(aggregator.totals('A')).isEqualTo(new Totals(2, 2500, 1000, 1500));
+        assertThat(aggregator.windowTotals('A')).isEqualTo(new Totals(1, 1000, 1000, 1000));
+
+        aggregator.advanceTo(LocalDate.of(2024, 1, 16));
+        assertThat(aggregator.windowSnapshot()).containsOnlyKeys('A');
+        aggregator.advanceTo(LocalDate.of(2024, 1, 17));
+        assertThat(aggregator.windowSnapshot()).isEmpty();
+        assertThat(aggregator.snapshot()).containsOnlyKeys('A', 'B');
+
+        assertThatThrownBy(() -> aggregator.add(new Product("C-1", "20240101", 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("retracting inside a live window corrects the window's min and max")
+    @Test
+    void retractionInsideWindow() {
+        ProductAggregator<Character> aggregator = new ProductAggregator<>(p -> p.id().charAt(0), 7);
+        aggregator.add(new Product("A-1", "20240101", 5000));
+        aggregator.add(new Product("A-2", "20240103", 1000));
+        aggregator.add(new Product("A-3", "20240104", 3000));
+        aggregator.add(new Product("A-4", "20240105", 2000));
+
+        aggregator.retract(new Product("A-2", "20240103", 1000));
+        assertThat(aggregator.windowTotals('A')).isEqualTo(new Totals(3, 10000, 2000, 5000));
+        aggregator.retract(new Product("A-1", "20240101", 5000));
+        assertThat(aggregator.windowTotals('A')).isEqualTo(new Totals(2, 5000, 2000, 3000));
+        assertThat(aggregator.totals('A')).isEqualTo(new Totals(2, 5000, 2000, 3000));
+
+        assertThatThrownBy(() -> aggregator.retract(new Product("A-3", "20240105", 3000)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(aggregator.totals('A')).isEqualTo(new Totals(2, 5000, 2000, 3000));
+
+        aggregator.advanceTo(LocalDate.of(2024, 1, 11));
+        assertThat(aggregator.windowTotals('A')).isEqualTo(new Totals(1, 2000, 2000, 2000));
+        aggregator.retract(new Product("A-3", "20240104", 3000));
+        assertThat(aggregator.windowTotals('A')).isEqualTo(new Totals(1, 2000, 2000, 2000));
+        assertThat(aggregator.totals('A')).isEqualTo(new Totals(1, 2000, 2000, 2000));
+    }
+}
@@ -0,0 +1,83 @@
+package stream;
+
+import org.example.stream.IntGrouping;
+import org.example.stream.IntGroups;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IntGroupingTest {
+
+    record Product(String id, String producedAt, int price) {
+    }
+
+    private static final List<Product> PRODUCTS = List.of(
+            new Product("A-1", "20240101", 1500),
+            new Product("B-1", "20250101", 3000),
+            new Product("C-1", "20230101", 4000),
+            new Product("A-2", "20230101", 2000),
+            new Product("D-1", "20230101", 3000),
+            new Product("A-3", "20240101", 1000)
+    );
+
+    @DisplayName("grouping by a char prefix matches groupingBy on a String key")
+    @Test
+    void groupByPrefix() {
+        IntGroups<Product> groups = PRODUCTS.stream().collect(IntGrouping.byKey(p -> p.id().charAt(0)));
+
+        assertThat(groups.groupCount()).isEqualTo(4);
+        assertThat(groups.get('A')).extracting(Product::id).containsExactly("A-1", "A-2", "A-3");
+        assertThat(groups.count('B')).isEqualTo(1);
+        assertThat(groups.get('Z')).isEmpty();
+        assertThat(groups.containsKey('Z')).isFalse();
+
+        Map<String, List<Product>> expected = PRODUCTS.stream()
+                .collect(Collectors.groupingBy(p -> String.valueOf(p.id().charAt(0))));
+        assertThat(groups.toMap(k -> String.valueOf((char) k))).isEqualTo(expected);
+    }
+
+    @DisplayName("dense key range groups date buckets in ascending order")
+    @Test
+    void groupByYearDense() {
+        IntGroups<Product> groups = PRODUCTS.stream()
+                .collect(IntGrouping.byKey(p -> Integer.parseInt(p.producedAt().substring(0, 4)), 2000, 2100));
+
+        assertThat(groups.groupCount()).isEqualTo(3);
+        assertThat(groups.key(0)).isEqualTo(2023);
+        assertThat(groups.key(2)).isEqualTo(2025);
+        assertThat(groups.count(2023)).isEqualTo(3);
+        assertThat(groups.get(1999)).isEmpty();
+    }
+
+    @DisplayName("key outside the dense range is rejected")
+    @Test
+    void keyOutsideRange() {
+        assertThatThrownBy(() -> PRODUCTS.stream().collect(IntGrouping.byKey(Product::price, 0, 100)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("parallel grouping over many sparse keys keeps encounter order")
+    @Test
+    void parallelSparseKeys() {
+        Random random = new Random(7);
+        List<Integer> values = IntStream.range(0, 200_000).map(i -> random.nextInt()).boxed().toList();
+
+        IntGroups<Integer> groups = values.parallelStream().collect(IntGrouping.byKey(v -> v % 5_000));
+        Map<Integer, List<Integer>> expected = values.stream().collect(Collectors.groupingBy(v -> v % 5_000));
+
+        assertThat(groups.size()).isEqualTo(values.size());
+        assertThat(groups.groupCount()).isEqualTo(expected.size());
+        expected.forEach((key, list) -> assertThat(groups.get(key)).isEqualTo(list));
+        for (int g = 1; g < groups.groupCount(); g++) {
+            assertThat(groups.key(g)).isGreaterThan(groups.key(g - 1));
+        }
+    }
+}
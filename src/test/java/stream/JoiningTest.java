@@ -0,0 +1,87 @@
+package stream;
+
+import org.example.stream.Joined;
+import org.example.stream.Joining;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JoiningTest {
+
+    private static final List<String> WORDS = List.of("this", "is", "a", "sweet", "potato");
+
+    @DisplayName("joins words without a leading delimiter")
+    @Test
+    void joinWords() {
+        assertThat(WORDS.stream().collect(Joining.joining(" "))).isEqualTo("this is a sweet potato");
+        assertThat(WORDS.stream().collect(Joining.joining(",", "[", "]"))).isEqualTo("[this,is,a,sweet,potato]");
+        assertThat(Stream.<String>empty().collect(Joining.joining(",", "[", "]"))).isEqualTo("[]");
+        assertThat(Stream.of("", "").collect(Joining.joining(","))).isEqualTo(",");
+    }
+
+    @DisplayName("parallel joins keep encounter order and match Collectors.joining")
+    @Test
+    void parallelMatchesJdk() {
+        List<String> values = IntStream.range(0, 200_000).mapToObj(Integer::toString).toList();
+
+        String actual = values.parallelStream().collect(Joining.joining(";", "<", ">"));
+
+        assertThat(actual).isEqualTo(values.stream().collect(Collectors.joining(";", "<", ">")));
+    }
+
+    @DisplayName("a rope writes to a Writer and to a ByteBuffer as UTF-8")
+    @Test
+    void writeRope() throws IOException {
+        List<String> fields = List.of("id", "price", "\uAC10\uC790", "\uD83E\uDD54", "caf\u00E9");
+        Joined joined = fields.parallelStream().collect(Joining.joined(",", "", "\n"));
+        String expected = String.join(",", fields) + "\n";
+
+        StringWriter writer = new StringWriter();
+        joined.writeTo(writer);
+        assertThat(writer.toString()).isEqualTo(expected);
+        assertThat(joined.length()).isEqualTo(expected.length());
+
+        byte[] utf8 = expected.getBytes(StandardCharsets.UTF_8);
+        assertThat(joined.utf8Length()).isEqualTo(utf8.length);
+        ByteBuffer buffer = ByteBuffer.allocate(utf8.length);
+        joined.writeUtf8(buffer);
+        assertThat(buffer.array()).isEqualTo(utf8);
+
+        assertThatThrownBy(() -> joined.writeUtf8(ByteBuffer.allocate(3))).isInstanceOf(BufferOverflowException.class);
+    }
+
+    @DisplayName("unpaired surrogates are encoded like String.getBytes")
+    @Test
+    void unpairedSurrogate() {
+        String broken = "a\uD800b";
+        Joined joined = Stream.of(broken).collect(Joining.joined("", "", ""));
+        ByteBuffer buffer = ByteBuffer.allocate((int) joined.utf8Length());
+
+        joined.writeUtf8(buffer);
+
+        assertThat(buffer.array()).isEqualTo(broken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @DisplayName("streams elements to a Writer")
+    @Test
+    void joinToWriter() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        long count = Joining.joinTo(WORDS.stream(), " ", writer);
+
+        assertThat(count).isEqualTo(5);
+        assertThat(writer.toString()).isEqualTo("this is a sweet potato");
+    }
+}
@@ -0,0 +1,121 @@
+package stream;
+
+import org.example.stream.ParallelReducer;
+import org.example.stream.Reduction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelReducerTest {
+
+    record Potato(String name, int price) {
+    }
+
+    private static class PotatoStat {
+        int high;
+        int low;
+        int total;
+
+        PotatoStat(int high, int low, int total) {
+            this.high = high;
+            this.low = low;
+            this.total = total;
+        }
+
+        boolean sameAs(PotatoStat other) {
+            return high == other.high && low == other.low && total == other.total;
+        }
+
+        @Override
+        public String toString() {
+            return "PotatoStat[high=" + high + ", low=" + low + ", total=" + total + "]";
+        }
+    }
+
+    private static final List<Potato> POTATOES = IntStream.rangeClosed(1, 1_000)
+            .mapToObj(i -> new Potato("p" + i, i * 10))
+            .toList();
+
+    private static final ParallelReducer VERIFYING = ParallelReducer.builder().verify(true).build();
+
+    private static PotatoStat accumulate(PotatoStat stat, Potato potato) {
+        stat.high = Math.max(stat.high, potato.price());
+        stat.low = Math.min(stat.low, potato.price());
+        stat.total += potato.price();
+        return stat;
+    }
+
+    private static PotatoStat combine(PotatoStat s1, PotatoStat s2) {
+        s1.high = Math.max(s1.high, s2.high);
+        s1.low = Math.min(s1.low, s2.low);
+        s1.total += s2.total;
+        return s1;
+    }
+
+    @DisplayName("mutable accumulators reduce correctly in parallel")
+    @Test
+    void mutableReduction() {
+        Reduction<Potato, PotatoStat> stats = Reduction.of(
+                () -> new PotatoStat(Integer.MIN_VALUE, Integer.MAX_VALUE, 0),
+                ParallelReducerTest::accumulate, ParallelReducerTest::combine, PotatoStat::sameAs);
+
+        for (int i = 0; i < 20; i++) {
+            PotatoStat result = VERIFYING.reduce(POTATOES, stats);
+
+            assertThat(result.total).isEqualTo(5_005_000);
+            assertThat(result.high).isEqualTo(10_000);
+            assertThat(result.low).isEqualTo(10);
+        }
+        assertThat(ParallelReducer.defaults().reduce(POTATOES.stream(), stats).total).isEqualTo(5_005_000);
+    }
+
+    @DisplayName("a combiner that drops its right side is detected")
+    @Test
+    void droppingCombiner() {
+        Reduction<Potato, PotatoStat> stats = Reduction.of(
+                () -> new PotatoStat(Integer.MIN_VALUE, Integer.MAX_VALUE, 0),
+                ParallelReducerTest::accumulate, (s1, s2) -> s1, PotatoStat::sameAs);
+
+        assertThatThrownBy(() -> VERIFYING.reduce(POTATOES, stats))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("combine");
+    }
+
+    @DisplayName("a shared identity mutated by the accumulator is detected")
+    @Test
+    void sharedIdentity() {
+        PotatoStat shared = new PotatoStat(0, Integer.MAX_VALUE, 0);
+        Reduction<Potato, PotatoStat> stats = Reduction.of(() -> shared,
+                ParallelReducerTest::accumulate, ParallelReducerTest::combine, PotatoStat::sameAs);
+
+        assertThatThrownBy(() -> VERIFYING.reduce(POTATOES, stats))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("shared instance");
+    }
+
+    @DisplayName("an identity that is not neutral is detected")
+    @Test
+    void nonNeutralIdentity() {
+        Reduction<Potato, Integer> sum = Reduction.of(() -> 1, (acc, p) -> acc + p.price(), Integer::sum);
+
+        assertThatThrownBy(() -> VERIFYING.reduce(POTATOES, sum))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("neutral");
+    }
+
+    @DisplayName("immutable accumulators work and a non-associative combine is detected")
+    @Test
+    void immutableAccumulators() {
+        Reduction<Potato, Integer> sum = Reduction.of(() -> 0, (acc, p) -> acc + p.price(), Integer::sum);
+        Reduction<Potato, Integer> difference = Reduction.of(() -> 0, (acc, p) -> acc - p.price(), (a, b) -> a - b);
+
+        assertThat(VERIFYING.reduce(POTATOES, sum)).isEqualTo(5_005_000);
+        assertThatThrownBy(() -> VERIFYING.reduce(POTATOES, difference))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,125 @@
+package stream;
+
+import org.example.stream.DoublePercentiles;
+import org.example.stream.DoubleStats;
+import org.example.stream.IntStats;
+import org.example.stream.LongStats;
+import org.example.stream.Percentiles;
+import org.example.stream.PrimitiveCollectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class PrimitiveCollectorsTest {
+
+    record Product(int id, long producedAt, double price) {
+    }
+
+    private static List<Product> products(int count) {
+        Random random = new Random(42);
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Product(random.nextInt(10_000) - 5_000, random.nextLong(), random.nextDouble() * 100))
+                .toList();
+    }
+
+    @DisplayName("parallel intStats matches IntSummaryStatistics")
+    @Test
+    void intStatsMatchesSummaryStatistics() {
+        List<Product> products = products(100_000);
+
+        IntStats stats = products.parallelStream().collect(PrimitiveCollectors.intStats(Product::id));
+        IntSummaryStatistics expected = products.stream().collect(Collectors.summarizingInt(Product::id));
+
+        assertThat(stats.getCount()).isEqualTo(expected.getCount());
+        assertThat(stats.getSum()).isEqualTo(expected.getSum());
+        assertThat(stats.getMin()).isEqualTo(expected.getMin());
+        assertThat(stats.getMax()).isEqualTo(expected.getMax());
+        assertThat(stats.getAverage()).isCloseTo(expected.getAverage(), within(1e-9));
+    }
+
+    @DisplayName("parallel doubleStats matches DoubleSummaryStatistics")
+    @Test
+    void doubleStatsMatchesSummaryStatistics() {
+        List<Product> products = products(100_000);
+
+        DoubleStats stats = products.parallelStream().collect(PrimitiveCollectors.doubleStats(Product::price));
+        DoubleSummaryStatistics expected = products.stream().collect(Collectors.summarizingDouble(Product::price));
+
+        assertThat(stats.getCount()).isEqualTo(expected.getCount());
+        assertThat(stats.getSum()).isCloseTo(expected.getSum(), within(1e-6));
+        assertThat(stats.getMin()).isEqualTo(expected.getMin());
+        assertThat(stats.getMax()).isEqualTo(expected.getMax());
+    }
+
+    @DisplayName("variance survives combining partial results")
+    @Test
+    void varianceOfCombinedPartials() {
+        IntStats stats = IntStats.of(IntStream.of(2, 4, 4, 4).parallel());
+        stats.combine(IntStats.of(IntStream.of(5, 5, 7, 9)));
+
+        assertThat(stats.getAverage()).isEqualTo(5.0);
+        assertThat(stats.getVariance()).isCloseTo(4.0, within(1e-12));
+        assertThat(stats.getStandardDeviation()).isCloseTo(2.0, within(1e-12));
+        assertThat(stats.getSampleVariance()).isCloseTo(32.0 / 7, within(1e-12));
+    }
+
+    @DisplayName("long variance is accurate for large offsets")
+    @Test
+    void longVarianceWithLargeOffset() {
+        long base = 1L << 40;
+        LongStats stats = LongStats.of(LongStream.rangeClosed(1, 1_000).map(v -> base + v).parallel());
+
+        assertThat(stats.getMin()).isEqualTo(base + 1);
+        assertThat(stats.getMax()).isEqualTo(base + 1_000);
+        assertThat(stats.getVariance()).isCloseTo((1_000.0 * 1_000 - 1) / 12, within(1e-3));
+    }
+
+    @DisplayName("empty stats report neutral values")
+    @Test
+    void emptyStats() {
+        IntStats stats = new IntStats().combine(new IntStats());
+
+        assertThat(stats.getCount()).isZero();
+        assertThat(stats.getAverage()).isZero();
+        assertThat(stats.getVariance()).isZero();
+    }
+
+    @DisplayName("nearest-rank percentiles over a parallel stream")
+    @Test
+    void percentiles() {
+        Percentiles p = IntStream.rangeClosed(1, 100).boxed().parallel()
+                .collect(PrimitiveCollectors.percentiles(Integer::longValue));
+
+        assertThat(p.size()).isEqualTo(100);
+        assertThat(p.median()).isEqualTo(50);
+        assertThat(p.percentile(90)).isEqualTo(90);
+        assertThat(p.percentile(0)).isEqualTo(1);
+        assertThat(p.percentile(100)).isEqualTo(100);
+
+        p.accept(0);
+        assertThat(p.percentile(0)).isZero();
+    }
+
+    @DisplayName("double percentiles and empty input")
+    @Test
+    void doublePercentiles() {
+        DoublePercentiles p = products(1_001).parallelStream()
+                .collect(PrimitiveCollectors.doublePercentiles(Product::price));
+        double[] sorted = products(1_001).stream().mapToDouble(Product::price).sorted().toArray();
+
+        assertThat(p.median()).isEqualTo(sorted[500]);
+        assertThatThrownBy(() -> new Percentiles().median()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> p.percentile(101)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,123 @@
+package stream;
+
+import org.example.stream.Product;
+import org.example.stream.ProductColumns;
+import org.example.stream.Totals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ProductColumnsTest {
+
+    private static final List<Product> PRODUCTS = List.of(
+            new Product("A-1", "20240101", 1500),
+            new Product("B-1", "20250101", 3000),
+            new Product("C-1", "20230101", 4000),
+            new Product("A-2", "20230101", 2000),
+            new Product("D-1", "20230101", 3000),
+            new Product("A-3", "20240101", 1000)
+    );
+
+    private static Totals totals(IntSummaryStatistics stats) {
+        return new Totals(stats.getCount(), stats.getSum(), stats.getMin(), stats.getMax());
+    }
+
+    @DisplayName("rows round-trip through the columns")
+    @Test
+    void roundTrip() {
+        ProductColumns columns = ProductColumns.of(PRODUCTS.stream());
+
+        assertThat(columns.size()).isEqualTo(6);
+        assertThat(IntStream.range(0, columns.size()).mapToObj(columns::get)).containsExactlyElementsOf(PRODUCTS);
+    }
+
+    @DisplayName("filtered totals match a stream pipeline")
+    @Test
+    void filteredTotals() {
+        ProductColumns columns = ProductColumns.of(PRODUCTS.stream());
+
+        assertThat(columns.priceTotals())
+                .isEqualTo(totals(PRODUCTS.stream().mapToInt(Product::price).summaryStatistics()));
+        assertThat(columns.priceTotals(LocalDate.of(2023, 1, 1), LocalDate.of(2024, 1, 1)))
+                .isEqualTo(new Totals(3, 9000, 2000, 4000));
+        assertThat(columns.priceTotals(LocalDate.of(2030, 1, 1), LocalDate.of(2031, 1, 1)))
+                .isEqualTo(Totals.EMPTY);
+    }
+
+    @DisplayName("grouping by prefix and by day matches groupingBy")
+    @Test
+    void grouping() {
+        List<Product> products = IntStream.range(0, 50_000)
+                .mapToObj(i -> new Product((char) ('A' + i % 7) + "-" + i % 1_000,
+                        String.format("2024%02d%02d", 1 + i % 12, 1 + i % 28), i % 9_973))
+                .toList();
+        ProductColumns columns = products.parallelStream().collect(ProductColumns.collector());
+
+        assertThat(columns.size()).isEqualTo(products.size());
+        assertThat(columns.distinctIds()).isEqualTo(7_000);
+
+        Map<Character, IntSummaryStatistics> byPrefix = products.stream()
+                .collect(Collectors.groupingBy(p -> p.id().charAt(0), Collectors.summarizingInt(Product::price)));
+        Map<Character, Totals> actualByPrefix = columns.priceTotalsByIdPrefix();
+        assertThat(actualByPrefix).hasSameSizeAs(byPrefix);
+        byPrefix.forEach((prefix, stats) -> assertThat(actualByPrefix.get(prefix)).isEqualTo(totals(stats)));
+
+        Map<LocalDate, Totals> byDay = columns.priceTotalsByDay(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1));
+        assertThat(byDay.keySet()).containsExactlyInAnyOrderElementsOf(products.stream()
+                .filter(p -> p.producedAt().startsWith("202403"))
+                .map(p -> LocalDate.of(2024, 3, Integer.parseInt(p.producedAt().substring(6))))
+                .collect(Collectors.toSet()));
+        assertThat(byDay.get(LocalDate.of(2024, 3, 3))).isEqualTo(totals(products.stream()
+                .filter(p -> p.producedAt().equals("20240303"))
+                .mapToInt(Product::price).summaryStatistics()));
+    }
+
+    @DisplayName("columns grow past their initial capacity")
+    @Test
+    void growth() {
+        ProductColumns.Builder builder = ProductColumns.builder();
+        for (int i = 0; i < 5_000; i++) {
+            builder.add(new Product("X", "20240101", i));
+        }
+        ProductColumns columns = builder.build();
+
+        assertThat(columns.priceTotals()).isEqualTo(new Totals(5_000, 4_999L * 5_000 / 2, 0, 4_999));
+        assertThat(columns.get(4_999).price()).isEqualTo(4_999);
+        assertThat(columns.distinctIds()).isEqualTo(1);
+    }
+
+    @DisplayName("columns span several chunks, past the expected row count")
+    @Test
+    void chunkedGrowth() {
+        int rows = 2_500_000;
+        ProductColumns.Builder builder = ProductColumns.builder(1_500_000);
+        for (int i = 0; i < rows; i++) {
+            builder.add(new Product("X-" + i % 3, "20240101", i % 1_000));
+        }
+        ProductColumns columns = builder.build();
+
+        assertThat(columns.size()).isEqualTo(rows);
+        assertThat(columns.priceTotals()).isEqualTo(new Totals(rows, 999L * 1_000 / 2 * (rows / 1_000), 0, 999));
+        for (int row : new int[]{(1 << 20) - 1, 1 << 20, 1_500_000, rows - 1}) {
+            assertThat(columns.get(row)).isEqualTo(new Product("X-" + row % 3, "20240101", row % 1_000));
+        }
+    }
+
+    @DisplayName("malformed dates are rejected")
+    @Test
+    void malformedDate() {
+        assertThatThrownBy(() -> ProductColumns.builder().add(new Product("A", "2024-01-01", 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductColumns.builder().add(new Product("A", "20241301", 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,5 +1,6 @@
 package stream;
 
+import org.example.stream.Joining;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -33,7 +34,7 @@ public class ReduceTest {
 
         List<String> list = List.of("this", "is", "a", "sweet", "potato");
 
-        String result = list.stream().reduce("", (a, b) -> a + " " + b);
+        String result = list.stream().collect(Joining.joining(" "));
         Assertions.assertEquals(expected, result);
 
     }
@@ -0,0 +1,125 @@
+package stream;
+
+import org.example.stream.CountMinTopK;
+import org.example.stream.HyperLogLog;
+import org.example.stream.KllSketch;
+import org.example.stream.Product;
+import org.example.stream.SketchCollectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class SketchCollectorsTest {
+
+    private static List<Product> products(int count, int distinctIds) {
+        Random random = new Random(5);
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Product("P-" + random.nextInt(distinctIds),
+                        "2024010" + (1 + i % 3), random.nextInt(100_000)))
+                .toList();
+    }
+
+    @DisplayName("distinct ids per day are within a few percent")
+    @Test
+    void distinctCountPerDay() {
+        List<Product> products = products(300_000, 50_000);
+
+        Map<String, HyperLogLog> sketches = products.parallelStream()
+                .collect(Collectors.groupingBy(Product::producedAt, SketchCollectors.distinctCount(Product::id)));
+        Map<String, Long> exact = products.stream().collect(Collectors.groupingBy(Product::producedAt,
+                Collectors.collectingAndThen(Collectors.mapping(Product::id, Collectors.toSet()), s -> (long) s.size())));
+
+        assertThat(sketches).hasSameSizeAs(exact);
+        exact.forEach((day, count) ->
+                assertThat((double) sketches.get(day).estimate()).isCloseTo(count, within(count * 0.05)));
+    }
+
+    @DisplayName("small cardinalities are counted almost exactly")
+    @Test
+    void smallCardinality() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            sketch.add("id-" + i % 10);
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(10);
+    }
+
+    @DisplayName("quantiles are within the rank error")
+    @Test
+    void quantiles() {
+        List<Product> products = products(200_000, 1_000);
+
+        KllSketch sketch = products.parallelStream().collect(SketchCollectors.quantiles(Product::price));
+        int[] sorted = products.stream().mapToInt(Product::price).sorted().toArray();
+
+        assertThat(sketch.count()).isEqualTo(200_000);
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.9, 0.99}) {
+            double estimate = sketch.quantile(q);
+            double rank = (double) Math.abs(Arrays.binarySearch(sorted, (int) estimate)) / sorted.length;
+            assertThat(rank).isCloseTo(q, within(0.02));
+        }
+        assertThat(sketch.quantile(0)).isEqualTo(sorted[0]);
+        assertThat(sketch.quantile(1)).isEqualTo(sorted[sorted.length - 1]);
+        assertThat(sketch.toBytes().length).isLessThan(16 * 1024);
+    }
+
+    @DisplayName("top-K finds the heavy hitters")
+    @Test
+    void topK() {
+        Random random = new Random(9);
+        List<Product> products = IntStream.range(0, 100_000)
+                .mapToObj(i -> new Product(i % 10 == 0 ? "HOT-" + i % 3 : "P-" + random.nextInt(20_000), "20240101", 1))
+                .toList();
+
+        CountMinTopK sketch = products.parallelStream().collect(SketchCollectors.topK(Product::id, 3));
+
+        assertThat(sketch.topK()).extracting(CountMinTopK.Entry::key)
+                .containsExactlyInAnyOrder("HOT-0", "HOT-1", "HOT-2");
+        assertThat(sketch.estimate("HOT-0")).isGreaterThanOrEqualTo(3_333);
+        assertThat(sketch.total()).isEqualTo(100_000);
+    }
+
+    @DisplayName("serialized partial sketches merge into the sketch of the whole")
+    @Test
+    void serializeAndMerge() {
+        List<Product> products = products(100_000, 20_000);
+        List<Product> first = products.subList(0, 50_000);
+        List<Product> second = products.subList(50_000, 100_000);
+
+        HyperLogLog hll = HyperLogLog.fromBytes(first.stream().collect(SketchCollectors.distinctCount(Product::id)).toBytes())
+                .merge(HyperLogLog.fromBytes(second.stream().collect(SketchCollectors.distinctCount(Product::id)).toBytes()));
+        assertThat(hll.estimate()).isEqualTo(products.stream().collect(SketchCollectors.distinctCount(Product::id)).estimate());
+
+        KllSketch kll = KllSketch.fromBytes(first.stream().collect(SketchCollectors.quantiles(Product::price)).toBytes())
+                .merge(KllSketch.fromBytes(second.stream().collect(SketchCollectors.quantiles(Product::price)).toBytes()));
+        assertThat(kll.count()).isEqualTo(100_000);
+        assertThat(kll.median()).isCloseTo(50_000, within(2_000.0));
+
+        CountMinTopK cms = CountMinTopK.fromBytes(first.stream().collect(SketchCollectors.topK(Product::id, 5)).toBytes())
+                .merge(CountMinTopK.fromBytes(second.stream().collect(SketchCollectors.topK(Product::id, 5)).toBytes()));
+        CountMinTopK whole = products.stream().collect(SketchCollectors.topK(Product::id, 5));
+        assertThat(cms.total()).isEqualTo(whole.total());
+        assertThat(cms.estimate("P-7")).isEqualTo(whole.estimate("P-7"));
+    }
+
+    @DisplayName("malformed bytes and mismatched shapes are rejected")
+    @Test
+    void rejectsBadInput() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[]{'H', 12, 0})).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KllSketch.fromBytes(new byte[]{'X'})).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CountMinTopK.fromBytes(new byte[]{'C', 0, 0})).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(10).merge(new HyperLogLog(12))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new KllSketch().quantile(0.5)).isInstanceOf(IllegalStateException.class);
+    }
+}
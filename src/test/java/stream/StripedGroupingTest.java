@@ -0,0 +1,90 @@
+package stream;
+
+import org.example.stream.StripedGrouping;
+import org.example.stream.Totals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedGroupingTest {
+
+    record Product(String id, int price) {
+    }
+
+    /**
+     * Half of the products share one prefix, the rest spread over 500 others.
+     */
+    private static List<Product> skewedProducts(int count) {
+        Random random = new Random(11);
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Product((i % 2 == 0 ? "A" : "K" + random.nextInt(500)) + "-" + i,
+                        random.nextInt(10_000)))
+                .toList();
+    }
+
+    private static String prefix(Product p) {
+        return p.id().substring(0, p.id().indexOf('-'));
+    }
+
+    @DisplayName("parallel counting matches groupingBy")
+    @Test
+    void counting() {
+        List<Product> products = skewedProducts(200_000);
+
+        Map<String, Long> actual = products.parallelStream().collect(StripedGrouping.counting(StripedGroupingTest::prefix));
+
+        assertThat(actual).isEqualTo(products.stream()
+                .collect(Collectors.groupingBy(StripedGroupingTest::prefix, Collectors.counting())));
+        assertThat(actual.get("A")).isEqualTo(100_000);
+    }
+
+    @DisplayName("parallel summing matches groupingByConcurrent")
+    @Test
+    void summing() {
+        List<Product> products = skewedProducts(200_000);
+
+        Map<String, Long> actual = products.parallelStream()
+                .collect(StripedGrouping.summingLong(StripedGroupingTest::prefix, Product::price));
+
+        assertThat(actual).isEqualTo(products.parallelStream()
+                .collect(Collectors.groupingByConcurrent(StripedGroupingTest::prefix,
+                        Collectors.summingLong(Product::price))));
+    }
+
+    @DisplayName("summarizing reports count, sum, min and max per group")
+    @Test
+    void summarizing() {
+        List<Product> products = skewedProducts(50_000);
+
+        Map<String, Totals> actual = products.parallelStream()
+                .collect(StripedGrouping.summarizingLong(StripedGroupingTest::prefix, Product::price));
+        Map<String, LongSummaryStatistics> expected = products.stream()
+                .collect(Collectors.groupingBy(StripedGroupingTest::prefix, Collectors.summarizingLong(Product::price)));
+
+        assertThat(actual).hasSameSizeAs(expected);
+        expected.forEach((key, stats) -> assertThat(actual.get(key))
+                .isEqualTo(new Totals(stats.getCount(), stats.getSum(), stats.getMin(), stats.getMax())));
+    }
+
+    @DisplayName("works as a downstream collector that gets combined")
+    @Test
+    void downstream() {
+        List<Product> products = skewedProducts(10_000);
+
+        Map<Boolean, Map<String, Long>> actual = products.parallelStream()
+                .collect(Collectors.partitioningBy(p -> p.price() < 5_000,
+                        StripedGrouping.counting(StripedGroupingTest::prefix)));
+
+        assertThat(actual).isEqualTo(products.stream()
+                .collect(Collectors.partitioningBy(p -> p.price() < 5_000,
+                        Collectors.groupingBy(StripedGroupingTest::prefix, Collectors.counting()))));
+    }
+}
@@ -0,0 +1,170 @@
+package stream;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.EntryMethod;
+import org.example.FileDto;
+import org.example.LatencyHistogram;
+import org.example.ZipMetrics;
+import org.example.ZipStreamer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class ZipMetricsTest {
+
+    @TempDir
+    Path dir;
+
+    @DisplayName("histogram percentiles stay within 2% of the exact ones")
+    @Test
+    void histogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1000);
+        }
+
+        assertThat(histogram.count()).isEqualTo(100_000);
+        assertThat(histogram.max()).isEqualTo(100_000_000);
+        assertThat(histogram.mean()).isCloseTo(50_000_500, within(1.0));
+        assertThat((double) histogram.percentile(50)).isCloseTo(50_000_000, within(1_000_000.0));
+        assertThat((double) histogram.percentile(99)).isCloseTo(99_000_000, within(2_000_000.0));
+        assertThat(histogram.percentile(100)).isEqualTo(100_000_000);
+    }
+
+    @DisplayName("small values are exact and an empty histogram reports zeros")
+    @Test
+    void histogramEdges() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.percentile(99)).isZero();
+
+        histogram.record(-5);
+        histogram.record(3);
+        histogram.record(Long.MAX_VALUE);
+
+        assertThat(histogram.percentile(0)).isZero();
+        assertThat(histogram.percentile(50)).isEqualTo(3);
+        assertThat(histogram.percentile(100)).isEqualTo(Long.MAX_VALUE);
+
+        histogram.reset();
+        assertThat(histogram.count()).isZero();
+    }
+
+    @DisplayName("entries, bytes and timings are counted for STORED and DEFLATED archives")
+    @Test
+    void countsEntriesAndBytes() throws IOException {
+        Path source = createFile(256 * 1024);
+        List<FileDto> files = ZipStreamerTest.getFileDtos(source, 8);
+        ZipMetrics metrics = new ZipMetrics();
+
+        write(ZipStreamer.builder().metrics(metrics).build(), files, "deflated.zip");
+        write(ZipStreamer.builder().metrics(metrics).method(EntryMethod.STORED).build(), files, "stored.zip");
+
+        assertThat(metrics.getArchives()).isEqualTo(2);
+        assertThat(metrics.getEntries()).isEqualTo(16);
+        assertThat(metrics.getBytesIn()).isEqualTo(16 * 256 * 1024L);
+        assertThat(metrics.getBytesOut()).isGreaterThan(8 * 256 * 1024L).isLessThan(metrics.getBytesIn());
+        assertThat(metrics.getCompressionRatio()).isBetween(0.5, 1.0);
+        assertThat(metrics.entryNanos().count()).isEqualTo(16);
+        assertThat(metrics.entryNanos().max()).isPositive();
+        assertThat(metrics.writeNanos().max()).isPositive();
+        assertThat(metrics.getPeakBuffersInUse()).isEqualTo(2);
+        assertThat(metrics.getPeakHeapUsed()).isPositive();
+
+        metrics.reset();
+        assertThat(metrics.getEntries()).isZero();
+    }
+
+    @DisplayName("STORED bodies transferred into a file channel are counted and timed as writes")
+    @Test
+    void countsTransferredBodies() throws IOException {
+        List<FileDto> files = ZipStreamerTest.getFileDtos(createFile(256 * 1024), 4);
+        ZipMetrics metrics = new ZipMetrics();
+        Path archive = dir.resolve("transferred.zip");
+
+        try (FileChannel out = FileChannel.open(archive, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ZipStreamer.builder().metrics(metrics).method(EntryMethod.STORED).build().write(files, out);
+        }
+
+        assertThat(metrics.getBytesIn()).isEqualTo(4 * 256 * 1024L);
+        // everything but the central directory, which is written after the last entry
+        assertThat(metrics.getBytesOut()).isGreaterThan(metrics.getBytesIn()).isLessThan(Files.size(archive));
+        assertThat(metrics.writeNanos().max()).isPositive();
+        ZipStreamerTest.assertArchive(archive, files, Path.of(files.get(0).getUrl()));
+    }
+
+    @DisplayName("the counters are readable over JMX")
+    @Test
+    void exposedOverJmx() throws IOException, JMException {
+        ZipMetrics metrics = new ZipMetrics();
+        ObjectName name = metrics.register("jmx test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            write(ZipStreamer.builder().metrics(metrics).build(),
+                    ZipStreamerTest.getFileDtos(createFile(64 * 1024), 3), "jmx.zip");
+
+            assertThat(server.getAttribute(name, "Entries")).isEqualTo(3L);
+            assertThat(server.getAttribute(name, "BytesIn")).isEqualTo(3 * 64 * 1024L);
+            CompositeData latency = (CompositeData) server.getAttribute(name, "EntryLatency");
+            assertThat(latency.get("count")).isEqualTo(3L);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @DisplayName("each entry is recorded as a JFR event")
+    @Test
+    void recordsJfrEvents() throws IOException {
+        Path jfr = dir.resolve("zip.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.ZipEntry");
+            recording.start();
+            write(ZipStreamer.defaults(), ZipStreamerTest.getFileDtos(createFile(64 * 1024), 4), "jfr.zip");
+            recording.stop();
+            recording.dump(jfr);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(jfr).stream()
+                .filter(e -> e.getEventType().getName().equals("org.example.ZipEntry"))
+                .toList();
+        assertThat(events).hasSize(4);
+        assertThat(events).extracting(e -> e.getString("name")).contains("entry 0", "entry 3");
+        assertThat(events).allSatisfy(e -> {
+            assertThat(e.getLong("bytesIn")).isEqualTo(64 * 1024);
+            assertThat(e.getString("method")).isEqualTo("DEFLATED");
+        });
+    }
+
+    private void write(ZipStreamer streamer, List<FileDto> files, String name) throws IOException {
+        try (OutputStream os = Files.newOutputStream(dir.resolve(name))) {
+            streamer.write(files, os);
+        }
+    }
+
+    // half random, half zeros: compresses to a little over half
+    private Path createFile(int size) throws IOException {
+        byte[] bytes = new byte[size];
+        byte[] random = new byte[size / 2];
+        new Random(7).nextBytes(random);
+        System.arraycopy(random, 0, bytes, 0, random.length);
+        return Files.write(dir.resolve("source-" + size + ".bin"), bytes);
+    }
+}
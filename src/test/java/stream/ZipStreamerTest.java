@@ -0,0 +1,331 @@
+package stream;
+
+import org.example.EntryMethod;
+import org.example.FileDto;
+import org.example.ZipStreamer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ZipStreamerTest {
+
+    private static final int MEGA_BYTE = 1024 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @DisplayName("every entry round-trips through the archive")
+    @Test
+    void writesReadableArchive() throws IOException {
+        Path source = createFile("source.bin", MEGA_BYTE + 123);
+        List<FileDto> fileDtos = getFileDtos(source, 20);
+        Path archive = dir.resolve("out.zip");
+
+        try (OutputStream os = Files.newOutputStream(archive)) {
+            ZipStreamer.builder().bufferSize(8 * 1024).build().write(fileDtos, os);
+        }
+
+        assertArchive(archive, fileDtos, source);
+        assertThat(readWithZipInputStream(Files.readAllBytes(archive))).isEqualTo(20);
+    }
+
+    @DisplayName("heap/256mb, total file size = 10 * 99 = 990mb")
+    @Test
+    void whenManyLargeEntries_thenDoesNotThrowOOM() throws IOException {
+        Path source = createFile("large.bin", 10 * MEGA_BYTE, 64 * 1024);
+        List<FileDto> fileDtos = getFileDtos(source, 99);
+        Path archive = dir.resolve("large.zip");
+
+        try (OutputStream os = Files.newOutputStream(archive)) {
+            ZipStreamer.defaults().write(fileDtos, os);
+        }
+
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            assertThat(zipFile.size()).isEqualTo(99);
+        }
+    }
+
+    @DisplayName("STORED entries are copied as-is and read back by ZipFile and ZipInputStream")
+    @Test
+    void whenStored_thenEntriesAreNotCompressed() throws IOException {
+        Path source = createFile("source.bin", MEGA_BYTE + 123);
+        List<FileDto> fileDtos = getFileDtos(source, 10);
+        Path archive = dir.resolve("stored.zip");
+
+        try (OutputStream os = Files.newOutputStream(archive)) {
+            ZipStreamer.builder().method(EntryMethod.STORED).build().write(fileDtos, os);
+        }
+
+        assertArchive(archive, fileDtos, source);
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            zipFile.stream().forEach(entry -> {
+                assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+                assertThat(entry.getCompressedSize()).isEqualTo(entry.getSize());
+            });
+        }
+        assertThat(readWithZipInputStream(Files.readAllBytes(archive))).isEqualTo(10);
+    }
+
+    @DisplayName("AUTO stores already-compressed sources and deflates the rest")
+    @Test
+    void whenAuto_thenOnlyPrecompressedSourcesAreStored() throws IOException {
+        Path text = createFile("notes.txt", 64 * 1024);
+        Path image = createFile("photo.JPG", 64 * 1024);
+        List<FileDto> fileDtos = List.of(
+                FileDto.builder().name("notes.txt").url(text.toString()).build(),
+                FileDto.builder().name("photo.jpg").url(image.toString()).build()
+        );
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        ZipStreamer.builder().method(EntryMethod.AUTO).build().write(fileDtos, bos);
+
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            assertThat(zis.getNextEntry().getMethod()).isEqualTo(ZipEntry.DEFLATED);
+            assertThat(zis.readAllBytes()).isEqualTo(Files.readAllBytes(text));
+            assertThat(zis.getNextEntry().getMethod()).isEqualTo(ZipEntry.STORED);
+            assertThat(zis.readAllBytes()).isEqualTo(Files.readAllBytes(image));
+            assertThat(zis.getNextEntry()).isNull();
+        }
+    }
+
+    @DisplayName("parallel deflate produces one valid stream with correct crcs")
+    @Test
+    void whenParallel_thenEntriesMatchSources() throws IOException {
+        Path source = createFile("source.bin", 5 * 16 * 1024 + 77);
+        Path exactChunks = createFile("exact.bin", 4 * 16 * 1024);
+        Path empty = createFile("empty.bin", 0);
+        List<FileDto> fileDtos = List.of(
+                FileDto.builder().name("source.bin").url(source.toString()).build(),
+                FileDto.builder().name("exact.bin").url(exactChunks.toString()).build(),
+                FileDto.builder().name("empty.bin").url(empty.toString()).build()
+        );
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        ZipStreamer.builder().parallelism(4).chunkSize(16 * 1024).build().write(fileDtos, bos);
+
+        // ZipInputStream verifies the crc of every entry
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            for (Path path : List.of(source, exactChunks, empty)) {
+                assertThat(zis.getNextEntry().getName()).isEqualTo(path.getFileName().toString());
+                assertThat(zis.readAllBytes()).isEqualTo(Files.readAllBytes(path));
+            }
+            assertThat(zis.getNextEntry()).isNull();
+        }
+    }
+
+    @DisplayName("prefetched sources are written in order within the read-ahead budget")
+    @Test
+    void whenPrefetching_thenEntriesMatchSources() throws IOException {
+        Path small = createFile("small.bin", 1000);
+        Path large = createFile("large.bin", 300 * 1024);
+        List<FileDto> fileDtos = IntStream.range(0, 30)
+                .mapToObj(i -> FileDto.builder().name("entry " + i).url((i % 3 == 0 ? large : small).toString()).build())
+                .toList();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        ZipStreamer.builder().bufferSize(16 * 1024).prefetchDepth(4).prefetchBudget(128 * 1024).build()
+                .write(fileDtos, bos);
+
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            for (FileDto fileDto : fileDtos) {
+                assertThat(zis.getNextEntry().getName()).isEqualTo(fileDto.getName());
+                assertThat(zis.readAllBytes()).isEqualTo(Files.readAllBytes(fileDto.path()));
+            }
+            assertThat(zis.getNextEntry()).isNull();
+        }
+    }
+
+    @DisplayName("a missing source fails the archive instead of hanging the prefetch readers")
+    @Test
+    void whenPrefetchedSourceIsMissing_thenThrows() throws IOException {
+        Path source = createFile("source.bin", 100 * 1024);
+        List<FileDto> fileDtos = List.of(
+                FileDto.builder().name("a").url(source.toString()).build(),
+                FileDto.builder().name("b").url(dir.resolve("missing.bin").toString()).build(),
+                FileDto.builder().name("c").url(source.toString()).build()
+        );
+
+        assertThatThrownBy(() -> ZipStreamer.builder().prefetchDepth(2).build()
+                .write(fileDtos, new ByteArrayOutputStream()))
+                .isInstanceOf(NoSuchFileException.class);
+    }
+
+    @DisplayName("mapped windows and buffered reads produce the same entries")
+    @Test
+    void whenMapped_thenEntriesMatchSources() throws IOException {
+        Path small = createFile("small.bin", 10 * 1024);
+        Path large = createFile("large.bin", 300 * 1024 + 5);
+        List<FileDto> fileDtos = List.of(
+                FileDto.builder().name("small.bin").url(small.toString()).build(),
+                FileDto.builder().name("large.bin").url(large.toString()).build()
+        );
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        ZipStreamer.builder().mapThreshold(64 * 1024).mapWindow(100 * 1024).build().write(fileDtos, bos);
+
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            for (FileDto fileDto : fileDtos) {
+                assertThat(zis.getNextEntry().getName()).isEqualTo(fileDto.getName());
+                assertThat(zis.readAllBytes()).isEqualTo(Files.readAllBytes(fileDto.path()));
+            }
+            assertThat(zis.getNextEntry()).isNull();
+        }
+    }
+
+    @DisplayName("a mapped source truncated while it is read fails with an IOException")
+    @Test
+    void whenMappedSourceShrinks_thenIOException() throws IOException {
+        Path source = createFile("shrinking.bin", MEGA_BYTE, MEGA_BYTE);
+        List<FileDto> fileDtos = getFileDtos(source, 1);
+        // truncates once the first compressed bytes arrive, at a window boundary beyond the one being read
+        WritableByteChannel truncating = new WritableByteChannel() {
+            long written;
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                int n = src.remaining();
+                src.position(src.limit());
+                written += n;
+                if (written > 1024 && Files.size(source) == MEGA_BYTE) {
+                    try (FileChannel channel = FileChannel.open(source, StandardOpenOption.WRITE)) {
+                        channel.truncate(MEGA_BYTE / 2);
+                    }
+                }
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThatThrownBy(() -> ZipStreamer.builder().mapThreshold(64 * 1024).mapWindow(64 * 1024).build()
+                .write(fileDtos, truncating))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("shrank");
+    }
+
+    @DisplayName("descriptors are pulled lazily from a stream, with prefetch reading ahead of the writer")
+    @Test
+    void whenGivenLazyStream_thenWritesEveryEntry() throws IOException {
+        Path text = createFile("a.txt", 20 * 1024);
+        Path image = createFile("b.jpg", 10 * 1024);
+        AtomicInteger pulled = new AtomicInteger();
+        Stream<FileDto> fileDtos = Stream.generate(() -> {
+            int i = pulled.getAndIncrement();
+            return FileDto.builder().name("entry " + i).url((i % 2 == 0 ? text : image).toString()).build();
+        }).limit(1_000);
+        Path archive = dir.resolve("lazy.zip");
+
+        try (OutputStream os = Files.newOutputStream(archive)) {
+            ZipStreamer.builder().method(EntryMethod.AUTO).prefetchDepth(3).build().write(fileDtos, os);
+        }
+
+        assertThat(pulled.get()).isEqualTo(1_000);
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            assertThat(zipFile.size()).isEqualTo(1_000);
+            assertThat(zipFile.getInputStream(zipFile.getEntry("entry 998")).readAllBytes())
+                    .isEqualTo(Files.readAllBytes(text));
+            assertThat(zipFile.getEntry("entry 999").getMethod()).isEqualTo(ZipEntry.STORED);
+        }
+    }
+
+    @DisplayName("more than 65535 entries switches to the ZIP64 end records")
+    @Test
+    void whenTooManyEntriesForZip32_thenWritesZip64() throws IOException {
+        Path source = createFile("tiny.txt", 16);
+        List<FileDto> fileDtos = getFileDtos(source, 70_000);
+        Path archive = dir.resolve("zip64.zip");
+
+        try (OutputStream os = Files.newOutputStream(archive)) {
+            ZipStreamer.builder().method(EntryMethod.STORED).build().write(fileDtos, os);
+        }
+
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            assertThat(zipFile.size()).isEqualTo(70_000);
+            assertThat(zipFile.getEntry("entry 69999")).isNotNull();
+        }
+    }
+
+    static int readWithZipInputStream(byte[] archive) throws IOException {
+        int count = 0;
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            while (zis.getNextEntry() != null) {
+                zis.readAllBytes();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static List<FileDto> getFileDtos(Path source, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> FileDto.builder().name("entry " + i).url(source.toString()).build())
+                .toList();
+    }
+
+    Path createFile(String filename, int size) throws IOException {
+        return createFile(filename, size, size / 2);
+    }
+
+    // the first randomBytes are random, the rest zeros, so the deflater has something to do
+    Path createFile(String filename, int size, int randomBytes) throws IOException {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        Arrays.fill(bytes, randomBytes, size, (byte) 0);
+        return Files.write(dir.resolve(filename), bytes);
+    }
+
+    static void assertArchive(Path archive, List<FileDto> fileDtos, Path source) throws IOException {
+        long expectedCrc = crc(Files.readAllBytes(source));
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            assertThat(zipFile.size()).isEqualTo(fileDtos.size());
+            for (FileDto fileDto : fileDtos) {
+                ZipEntry entry = zipFile.getEntry(fileDto.getName());
+                assertThat(entry).isNotNull();
+                try (InputStream is = zipFile.getInputStream(entry)) {
+                    byte[] bytes = is.readAllBytes();
+                    assertThat(bytes.length).isEqualTo(Files.size(source));
+                    assertThat(crc(bytes)).isEqualTo(expectedCrc);
+                }
+            }
+        }
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes);
+        return crc32.getValue();
+    }
+}